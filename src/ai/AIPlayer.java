@@ -43,9 +43,11 @@ public class AIPlayer extends Entity implements Cloneable, Subject {
         ticksUntilMove = moveDelay;
 
         // 4) Gọi chiến lược di chuyển (Minimax/EscapeBombs/...)
+        long start = System.nanoTime();
         getMovementStrategy().move(this, game);
+        game.recordStrategyLatency(getMovementStrategy(), System.nanoTime() - start);
 
-        System.out.println("AIPlayer di chuyển trong lượt AI.");
+        Log.debug("AIPlayer di chuyển trong lượt AI.");
     }
 
     private boolean isCornered(AIPlayer aiPlayer, GameMap map) {
@@ -69,11 +71,16 @@ public class AIPlayer extends Entity implements Cloneable, Subject {
     protected int getExplosionRange() {
         return explosionRange;
     }
+    @Override
+    public int getTicksPerStep() {
+        // AIPlayer chỉ đi sau moveDelay vòng, mỗi vòng gọi updateGame UPDATES_PER_ROUND lần
+        return moveDelay * Game.UPDATES_PER_ROUND;
+    }
     public void predictPlayerActions(Game game) {
         Player player = game.getPlayer();
         int distance = Math.abs(player.getX() - x) + Math.abs(player.getY() - y);
         if (distance <= 3) {
-            System.out.println("Dự đoán: Người chơi có thể đặt bom gần!");
+            Log.debug("Dự đoán: Người chơi có thể đặt bom gần!");
         }
     }
     public void predictBombs(Game game) {
@@ -81,7 +88,9 @@ public class AIPlayer extends Entity implements Cloneable, Subject {
             if (!bomb.isExploded()) {
                 int countdown = bomb.getCountdown();
                 if (countdown <= 5) {
-                    System.out.println("Cảnh báo: Tránh xa bom sắp nổ tại (" + bomb.getX() + "," + bomb.getY() + ")");
+                    if (Log.DEBUG_ENABLED) {
+                        Log.debug("Cảnh báo: Tránh xa bom sắp nổ tại ({},{})", bomb.getX(), bomb.getY());
+                    }
                 }
             }
         }
@@ -94,13 +103,17 @@ public class AIPlayer extends Entity implements Cloneable, Subject {
             for (Bomb bomb : game.getBombs()) {
                 int distance = Math.abs(bomb.getX() - newX) + Math.abs(bomb.getY() - newY);
                 if (distance <= bomb.getExplosionRange()) {
-                    System.out.println("Bom gần ở: " + newX + "," + newY);
+                    if (Log.DEBUG_ENABLED) {
+                        Log.debug("Bom gần ở: {},{}", newX, newY);
+                    }
                 }
             }
             for (Balloon balloon : game.getBalloons()) {
                 int distance = Math.abs(balloon.getX() - newX) + Math.abs(balloon.getY() - newY);
                 if (distance <= 2) {
-                    System.out.println("Balloon gần ở: " + newX + "," + newY);
+                    if (Log.DEBUG_ENABLED) {
+                        Log.debug("Balloon gần ở: {},{}", newX, newY);
+                    }
                 }
             }
         }
@@ -108,10 +121,12 @@ public class AIPlayer extends Entity implements Cloneable, Subject {
     public void recordState(Game game) {
         AIState state = new AIState(x, y, bombCount, game.getBalloons().size());
         stateHistory.add(state);
-        System.out.println("Lưu trạng thái AI tại (" + x + ", " + y + ")");
+        if (Log.DEBUG_ENABLED) {
+            Log.debug("Lưu trạng thái AI tại ({}, {})", x, y);
+        }
     }
     public void updateStrategy() {
-        System.out.println("Cập nhật chiến lược dựa trên lịch sử trạng thái.");
+        Log.debug("Cập nhật chiến lược dựa trên lịch sử trạng thái.");
         // Logic cập nhật chiến lược có thể thêm vào đây
     }
     public List<int[]> getVisibleArea(int radius) {
@@ -193,12 +208,16 @@ public class AIPlayer extends Entity implements Cloneable, Subject {
         // Ví dụ:
         if (moveDelay > 1) {
             moveDelay -= 1;
-            System.out.println("AIPlayer moveDelay giảm còn: " + moveDelay);
+            if (Log.INFO_ENABLED) {
+                Log.info("AIPlayer moveDelay giảm còn: {}", moveDelay);
+            }
         }
     }
 
     public void increaseExplosionRange() {
         explosionRange++;
-        System.out.println("AIPlayer explosionRange đã tăng lên: " + explosionRange);
+        if (Log.INFO_ENABLED) {
+            Log.info("AIPlayer explosionRange đã tăng lên: {}", explosionRange);
+        }
     }
 }
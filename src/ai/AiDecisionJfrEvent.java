@@ -0,0 +1,24 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sự kiện JFR cho một lượt quyết định của MinimaxStrategy (thời lượng là thời gian của cả lượt).
+ */
+@Name("ai.AiDecision")
+@Label("AI Decision")
+@Category({"Bomberman", "AI"})
+@Description("Một lượt tìm kiếm Minimax của AIPlayer")
+class AiDecisionJfrEvent extends jdk.jfr.Event {
+    @Label("Completed Depth")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Chosen Action")
+    String action;
+}
@@ -3,7 +3,6 @@ package ai;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Lớp đại diện cho Balloon trong trò chơi.
@@ -22,26 +21,44 @@ public class Balloon extends Entity implements Cloneable {
     @Override
     public void update(Game game) {
         if (!alive) {
-            System.out.println(this.getClass().getSimpleName() + " không còn sống.");
+            Log.debug("{} không còn sống.", getClass().getSimpleName());
+            release(game);
             return;
         }
         ticksUntilMove--;
         if (ticksUntilMove <= 0) {
+            long start = System.nanoTime();
             movementStrategy.move(this, game);
+            game.recordStrategyLatency(movementStrategy, System.nanoTime() - start);
             ticksUntilMove = moveDelay;
-            System.out.println(this.getClass().getSimpleName() + " đã di chuyển đến (" + x + ", " + y + ").");
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} đã di chuyển đến ({}, {}).", getClass().getSimpleName(), x, y);
+            }
         }
 // Kiểm tra va chạm với người chơi
         Player player = game.getPlayer();
         if (this.x == player.getX() && this.y == player.getY() && player.isAlive()) {
             player.setAlive(false);
-            System.out.println("Người chơi bị Balloon tiêu diệt!");
+            Log.info("Người chơi bị Balloon tiêu diệt!");
         }
 // Kiểm tra va chạm với AIPlayer
         AIPlayer aiPlayer = game.getAiPlayer(); // Sửa tên phương thức ở đây
         if (aiPlayer != null && aiPlayer.isAlive() && this.x == aiPlayer.getX() && this.y == aiPlayer.getY()) {
             aiPlayer.setAlive(false);
-            System.out.println("AIPlayer bị Balloon tiêu diệt!");
+            Log.info("AIPlayer bị Balloon tiêu diệt!");
+        }
+    }
+    public MovementStrategy getMovementStrategy() {
+        return movementStrategy;
+    }
+    /**
+     * Giải phóng tài nguyên của chiến lược di chuyển khi Balloon chết hoặc bị loại khỏi trò chơi.
+     *
+     * @param game Trò chơi chứa Balloon.
+     */
+    public void release(Game game) {
+        if (movementStrategy instanceof ChasePlayerStrategy) {
+            ((ChasePlayerStrategy) movementStrategy).release(game);
         }
     }
     @Override
@@ -50,6 +67,11 @@ public class Balloon extends Entity implements Cloneable {
         return 0;
     }
     @Override
+    public int getTicksPerStep() {
+// Balloon được cập nhật ở mỗi lần gọi updateGame và đi sau moveDelay lần
+        return moveDelay;
+    }
+    @Override
     public Balloon clone() {
         Balloon cloned = (Balloon) super.clone();
 // Clone hoặc sao chép các đối tượng phức tạp nếu cần
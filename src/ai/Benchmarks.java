@@ -0,0 +1,315 @@
+package ai;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bộ đo hiệu năng các đường chạy nóng (tìm kiếm, tìm đường, mô phỏng) không cần thư viện ngoài.
+ *
+ * Mỗi phép đo chạy vài vòng khởi động rồi vài vòng đo có thời gian cố định trên cùng luồng, báo cáo số thao tác
+ * mỗi giây (trung bình và độ lệch chuẩn giữa các vòng), thời gian mỗi thao tác, số byte cấp phát mỗi thao tác
+ * và tốc độ cấp phát (đọc từ com.sun.management.ThreadMXBean của luồng đo). Các trạng thái đầu vào được tạo
+ * từ seed cố định (Game(seed)) nên số đo trước và sau một thay đổi là so sánh được.
+ *
+ * Tham số: [tên phép đo cần chạy...] (mặc định chạy tất cả, so khớp theo tiền tố).
+ * Thuộc tính hệ thống: bench.seed, bench.warmup (số vòng khởi động), bench.iterations (số vòng đo),
+ * bench.millis (thời gian mỗi vòng, ms).
+ */
+public class Benchmarks {
+    /**
+     * Một thao tác cần đo. Giá trị trả về được giữ lại để JIT không loại bỏ phép tính.
+     */
+    public interface Operation {
+        Object run();
+    }
+
+    /**
+     * Kết quả của một phép đo.
+     */
+    public static class Result {
+        private final String name;
+        private final double opsPerSecond;
+        private final double opsPerSecondStdDev;
+        private final double bytesPerOp;
+
+        Result(String name, double opsPerSecond, double opsPerSecondStdDev, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.opsPerSecondStdDev = opsPerSecondStdDev;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        /**
+         * Tốc độ cấp phát (MB/giây) khi chạy liên tục.
+         */
+        public double getAllocationRateMbPerSecond() {
+            return bytesPerOp * opsPerSecond / (1024.0 * 1024.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %14.1f ± %10.1f ops/s %12.3f µs/op %12.1f B/op %9.1f MB/s",
+                    name, opsPerSecond, opsPerSecondStdDev, 1e6 / opsPerSecond, bytesPerOp,
+                    getAllocationRateMbPerSecond());
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Nơi giữ kết quả của các thao tác để JIT không loại bỏ chúng
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+
+    /**
+     * Constructor tạo bộ đo.
+     *
+     * @param warmupIterations  Số vòng khởi động.
+     * @param measureIterations Số vòng đo.
+     * @param iterationMillis   Thời gian mỗi vòng (ms).
+     */
+    public Benchmarks(int warmupIterations, int measureIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    /**
+     * Đo một thao tác.
+     *
+     * @param name      Tên phép đo.
+     * @param operation Thao tác cần đo.
+     * @return Kết quả đo.
+     */
+    public Result measure(String name, Operation operation) {
+        // Số thao tác giữa hai lần đọc đồng hồ, tăng dần để mỗi lô mất khoảng 1 ms
+        int batch = 1;
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(operation, batch);
+            batch = calibrate(operation, batch);
+        }
+        double[] opsPerSecond = new double[measureIterations];
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < measureIterations; i++) {
+            long[] iteration = runIteration(operation, batch);
+            opsPerSecond[i] = iteration[0] * 1e9 / iteration[1];
+            totalOps += iteration[0];
+            totalBytes += iteration[2];
+        }
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value;
+        }
+        mean /= opsPerSecond.length;
+        double variance = 0;
+        for (double value : opsPerSecond) {
+            variance += (value - mean) * (value - mean);
+        }
+        double stdDev = opsPerSecond.length > 1 ? Math.sqrt(variance / (opsPerSecond.length - 1)) : 0.0;
+        return new Result(name, mean, stdDev, totalOps == 0 ? 0.0 : (double) totalBytes / totalOps);
+    }
+
+    /**
+     * Chạy một vòng.
+     *
+     * @return Mảng {số thao tác, thời gian (ns), số byte đã cấp phát}.
+     */
+    private long[] runIteration(Operation operation, int batch) {
+        long ops = 0;
+        long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < batch; i++) {
+                sink = operation.run();
+            }
+            ops += batch;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new long[]{ops, elapsed, bytes};
+    }
+
+    private int calibrate(Operation operation, int batch) {
+        long start = System.nanoTime();
+        for (int i = 0; i < batch; i++) {
+            sink = operation.run();
+        }
+        long perOp = Math.max(1, (System.nanoTime() - start) / batch);
+        return (int) Math.max(1, Math.min(1 << 20, 1_000_000L / perOp));
+    }
+
+    /**
+     * Tạo trò chơi đầu vào từ seed. AIPlayer dùng RandomMovementStrategy cùng seed để các phép đo
+     * không phải Minimax không bị chi phối bởi tìm kiếm của AI.
+     */
+    static Game createGame(long seed) {
+        Game game = new Game(seed);
+        game.getAiPlayer().setMovementStrategy(new RandomMovementStrategy(new SplittableRandom(seed)));
+        return game;
+    }
+
+    /**
+     * Tạo trò chơi trên bản đồ trống: bỏ mọi tường bên trong, chỉ giữ viền.
+     */
+    static Game createEmptyGame(long seed) {
+        Game game = createGame(seed);
+        GameMap map = game.getGameMap();
+        for (int x = 1; x < map.getWidth() - 1; x++) {
+            for (int y = 1; y < map.getHeight() - 1; y++) {
+                if (map.getTile(x, y) != ' ') {
+                    map.setTile(x, y, ' ');
+                }
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Tìm ô xa nhất (theo đường đi) có thể tới được từ (x, y).
+     */
+    static int[] farthestReachable(Game game, int x, int y) {
+        GameMap map = game.getGameMap();
+        DistanceTable table = game.getDistanceTable();
+        int[] best = {x, y};
+        int bestDistance = 0;
+        for (int tx = 0; tx < map.getWidth(); tx++) {
+            for (int ty = 0; ty < map.getHeight(); ty++) {
+                int distance = table.distance(x, y, tx, ty);
+                if (distance != DistanceTable.UNREACHABLE && distance > bestDistance) {
+                    bestDistance = distance;
+                    best = new int[]{tx, ty};
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Một lượt Minimax trên bản sao của trò chơi. Bản sao dùng chung AIPlayer với trò chơi gốc
+     * nên vị trí và số bom của AIPlayer được trả lại sau mỗi lượt.
+     */
+    static Operation minimaxMove(Game fixture, int depth, long seed) {
+        MinimaxStrategy strategy = new MinimaxStrategy(depth, true);
+        strategy.setSeed(seed);
+        AIPlayer aiPlayer = fixture.getAiPlayer();
+        int x = aiPlayer.getX();
+        int y = aiPlayer.getY();
+        int bombCount = aiPlayer.getBombCount();
+        return () -> {
+            Game game = fixture.clone();
+            strategy.move(game.getAiPlayer(), game);
+            long nodes = strategy.getLastNodeCount();
+            aiPlayer.setX(x);
+            aiPlayer.setY(y);
+            while (aiPlayer.getBombCount() < bombCount) {
+                aiPlayer.increaseBombCount();
+            }
+            return nodes;
+        };
+    }
+
+    /**
+     * Tìm đường từ vị trí người chơi tới ô xa nhất có thể tới được.
+     */
+    static Operation findSafePath(Game game) {
+        Pathfinding pathfinding = new Pathfinding(game.getGameMap());
+        Player player = game.getPlayer();
+        int[] goal = farthestReachable(game, player.getX(), player.getY());
+        return () -> pathfinding.findSafePath(player.getX(), player.getY(), goal[0], goal[1], game);
+    }
+
+    /**
+     * Cập nhật trò chơi một lượt; khi trò chơi kết thúc, bắt đầu lại từ cùng seed.
+     */
+    static Operation updateGame(long seed) {
+        Game[] game = {createGame(seed)};
+        return () -> {
+            if (game[0].isGameOver()) {
+                game[0] = createGame(seed);
+            }
+            game[0].updateGame();
+            return game[0];
+        };
+    }
+
+    static Node createNode(Game game) {
+        AIPlayer aiPlayer = game.getAiPlayer();
+        Player player = game.getPlayer();
+        return new Node(aiPlayer.getX(), aiPlayer.getY(), player.getX(), player.getY(), aiPlayer.getBombCount(),
+                game.getGameMap().getMap(), game.getBombs(), aiPlayer.getExplosionRange(), true);
+    }
+
+    public static void main(String[] args) {
+        // Tắt log trước khi lớp Log được nạp, trừ khi đã chỉ định mức log
+        if (System.getProperty("ai.log.level") == null) {
+            System.setProperty("ai.log.level", "OFF");
+        }
+        long seed = Long.getLong("bench.seed", 42L);
+        Benchmarks benchmarks = new Benchmarks(Integer.getInteger("bench.warmup", 3),
+                Integer.getInteger("bench.iterations", 5), Long.getLong("bench.millis", 500L));
+
+        Game maze = createGame(seed);
+        Game empty = createEmptyGame(seed);
+        Bomb bomb = new Bomb(maze.getPlayer().getX(), maze.getPlayer().getY(), 30, maze.getPlayer(), 3);
+        Node node = createNode(maze);
+
+        List<String> names = new ArrayList<>();
+        List<Operation> operations = new ArrayList<>();
+        for (int depth = 3; depth <= 8; depth++) {
+            names.add("minimax.move/depth=" + depth);
+            operations.add(minimaxMove(maze, depth, seed));
+        }
+        names.add("pathfinding.findSafePath/empty");
+        operations.add(findSafePath(empty));
+        names.add("pathfinding.findSafePath/maze");
+        operations.add(findSafePath(maze));
+        names.add("game.clone");
+        operations.add(maze::clone);
+        names.add("node.clone");
+        operations.add(node::clone);
+        names.add("game.getExplosionTiles");
+        operations.add(() -> maze.getExplosionTiles(bomb));
+        names.add("game.updateGame");
+        operations.add(updateGame(seed));
+
+        System.out.printf("seed=%d, khởi động %d vòng, đo %d vòng x %d ms%n", seed, benchmarks.warmupIterations,
+                benchmarks.measureIterations, benchmarks.iterationNanos / 1_000_000L);
+        for (int i = 0; i < names.size(); i++) {
+            if (!isSelected(names.get(i), args)) {
+                continue;
+            }
+            System.out.println(benchmarks.measure(names.get(i), operations.get(i)));
+        }
+    }
+
+    private static boolean isSelected(String name, String[] filters) {
+        if (filters.length == 0) {
+            return true;
+        }
+        for (String filter : filters) {
+            if (name.startsWith(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package ai;
+
+/**
+ * Tập bit kích thước cố định đại diện cho một lớp thông tin trên bản đồ (tường, bom, vùng nổ...).
+ * Mỗi ô tương ứng với một bit, các truy vấn chỉ là phép dịch và phép AND trên mảng long.
+ */
+public class BitBoard {
+    private final long[] words;
+
+    /**
+     * Constructor tạo tập bit rỗng.
+     *
+     * @param size Số bit (số ô).
+     */
+    public BitBoard(int size) {
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Constructor sao chép.
+     *
+     * @param other Tập bit cần sao chép.
+     */
+    public BitBoard(BitBoard other) {
+        this.words = other.words.clone();
+    }
+
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void set(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    public void clear(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Sao chép nội dung của một tập bit cùng kích thước vào tập bit này.
+     *
+     * @param other Tập bit nguồn.
+     */
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Hợp tập bit này với một tập bit cùng kích thước.
+     *
+     * @param other Tập bit cần hợp vào.
+     */
+    public void or(BitBoard other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Đếm số bit đang bật.
+     *
+     * @return Số ô được đánh dấu.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
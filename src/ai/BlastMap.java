@@ -0,0 +1,373 @@
+package ai;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bản đồ vùng nổ dùng chung cho toàn bộ trò chơi. Mỗi ô lưu lượt sớm nhất mà ô đó bị một quả bom
+ * chưa nổ đánh trúng (tính cả tường chắn như Game.getExplosionTiles), nên việc kiểm tra nguy hiểm
+ * chỉ là một phép tra mảng thay vì duyệt toàn bộ danh sách bom.
+ *
+ * Bản đồ được cập nhật tăng dần: khi bom được đặt, khi bom nổ (BombExplodedEvent) và khi một ô của
+ * bản đồ thay đổi (TileChangedEvent), chỉ các ô cùng hàng hoặc cùng cột với thay đổi được tính lại.
+ *
+ * Ngoài lượt sớm nhất, bản đồ còn cung cấp danh sách đầy đủ các lượt nổ của mỗi ô (một ô có thể bị nhiều
+ * quả bom đánh trúng ở các lượt khác nhau). Danh sách này được dựng lại khi cần sau mỗi thay đổi.
+ */
+public class BlastMap implements Observer {
+    // Giá trị của ô không nằm trong vùng nổ của quả bom nào
+    public static final int NEVER = Integer.MAX_VALUE;
+
+    private final GameMap map;
+    private final int width;
+    private final int height;
+    // Lượt (tuyệt đối) sớm nhất mà mỗi ô bị nổ, chỉ số x * height + y
+    private final int[] earliestTick;
+    // Các bom chưa nổ và lượt nổ (tuyệt đối) của chúng
+    private final Map<Bomb, Integer> explodeTicks = new IdentityHashMap<>();
+    private int currentTick;
+
+    // Các lượt nổ (tuyệt đối, tăng dần) của ô i nằm trong blastTicks[blastStart[i] .. blastStart[i + 1])
+    private final int[] blastStart;
+    private int[] blastTicks = new int[16];
+    private int[] rayCells = new int[16];
+    private boolean blastTicksDirty;
+
+    /**
+     * Constructor tạo bản đồ vùng nổ rỗng cho một bản đồ.
+     *
+     * @param map Bản đồ trò chơi.
+     */
+    public BlastMap(GameMap map) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.earliestTick = new int[width * height];
+        this.blastStart = new int[width * height + 1];
+        Arrays.fill(earliestTick, NEVER);
+    }
+
+    /**
+     * Thêm một quả bom vừa được đặt.
+     *
+     * @param bomb Quả bom chưa nổ.
+     */
+    public void addBomb(Bomb bomb) {
+        if (bomb.isExploded() || explodeTicks.containsKey(bomb)) {
+            return;
+        }
+        int explodeTick = currentTick + bomb.getCountdown();
+        explodeTicks.put(bomb, explodeTick);
+        markBomb(bomb, explodeTick);
+        blastTicksDirty = true;
+    }
+
+    /**
+     * Xóa một quả bom (đã nổ hoặc bị bỏ khỏi trò chơi) và tính lại các ô nó từng ảnh hưởng.
+     *
+     * @param bomb Quả bom cần xóa.
+     */
+    public void removeBomb(Bomb bomb) {
+        if (explodeTicks.remove(bomb) == null) {
+            return;
+        }
+        blastTicksDirty = true;
+        // Xóa cả hàng và cột của bom trong phạm vi nổ rồi đánh dấu lại các bom cùng hàng hoặc cùng cột
+        int range = bomb.getExplosionRange();
+        for (int d = -range; d <= range; d++) {
+            clearCell(bomb.getX() + d, bomb.getY());
+            clearCell(bomb.getX(), bomb.getY() + d);
+        }
+        remarkLines(bomb.getX(), bomb.getY(), range);
+    }
+
+    /**
+     * Xây dựng lại toàn bộ bản đồ vùng nổ từ danh sách bom.
+     *
+     * @param bombs Danh sách bom hiện có.
+     */
+    public void rebuild(List<Bomb> bombs) {
+        explodeTicks.clear();
+        Arrays.fill(earliestTick, NEVER);
+        blastTicksDirty = true;
+        for (Bomb bomb : bombs) {
+            addBomb(bomb);
+        }
+    }
+
+    /**
+     * Chuyển sang lượt tiếp theo (gọi sau mỗi lần cập nhật bom).
+     */
+    public void advance() {
+        currentTick++;
+    }
+
+    /**
+     * Kiểm tra xem ô (x, y) có nằm trong vùng nổ của một quả bom chưa nổ không.
+     *
+     * @param x Tọa độ X.
+     * @param y Tọa độ Y.
+     * @return true nếu ô sẽ bị nổ.
+     */
+    public boolean isInBlast(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && earliestTick[x * height + y] != NEVER;
+    }
+
+    /**
+     * Lấy số lượt còn lại trước khi ô (x, y) bị nổ lần đầu.
+     *
+     * @param x Tọa độ X.
+     * @param y Tọa độ Y.
+     * @return Số lượt còn lại, hoặc NEVER nếu ô không bị nổ.
+     */
+    public int ticksUntilBlast(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return NEVER;
+        }
+        int tick = earliestTick[x * height + y];
+        return tick == NEVER ? NEVER : Math.max(0, tick - currentTick);
+    }
+
+    /**
+     * Kiểm tra xem tia nổ của một quả bom có đánh trúng ô (x, y) không (tính cả tường chắn như markBomb).
+     *
+     * @param bomb Quả bom cần kiểm tra.
+     * @param x    Tọa độ X.
+     * @param y    Tọa độ Y.
+     * @return true nếu ô nằm trong vùng nổ của quả bom.
+     */
+    public boolean covers(Bomb bomb, int x, int y) {
+        int bx = bomb.getX();
+        int by = bomb.getY();
+        if (x != bx && y != by) {
+            return false;
+        }
+        int length = Math.abs(x - bx) + Math.abs(y - by);
+        if (length > bomb.getExplosionRange() || (length > 0 && map.getTile(x, y) == '#')) {
+            return false;
+        }
+        int dx = Integer.signum(x - bx);
+        int dy = Integer.signum(y - by);
+        // Tường (phá hủy hoặc không) nằm giữa bom và ô chặn tia nổ trước khi tới ô
+        for (int i = 1; i < length; i++) {
+            char tile = map.getTile(bx + dx * i, by + dy * i);
+            if (tile == '#' || tile == 'D') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lấy số lần ô (x, y) sẽ bị nổ bởi các bom hiện có.
+     *
+     * @param x Tọa độ X.
+     * @param y Tọa độ Y.
+     * @return Số lượt nổ của ô (0 nếu ô không bị nổ).
+     */
+    public int blastTickCount(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        ensureBlastTicks();
+        int cell = x * height + y;
+        return blastStart[cell + 1] - blastStart[cell];
+    }
+
+    /**
+     * Lấy số lượt còn lại trước lần nổ thứ i của ô (x, y), các lần nổ được sắp tăng dần.
+     *
+     * @param x     Tọa độ X.
+     * @param y     Tọa độ Y.
+     * @param index Thứ tự lần nổ, từ 0 đến blastTickCount(x, y) - 1.
+     * @return Số lượt còn lại.
+     */
+    public int blastTickAt(int x, int y, int index) {
+        ensureBlastTicks();
+        return Math.max(0, blastTicks[blastStart[x * height + y] + index] - currentTick);
+    }
+
+    /**
+     * Kiểm tra xem còn quả bom chưa nổ nào không.
+     */
+    public boolean hasBombs() {
+        return !explodeTicks.isEmpty();
+    }
+
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Nhận sự kiện bom nổ và thay đổi ô của bản đồ để cập nhật vùng nổ.
+     *
+     * @param event Sự kiện nhận được.
+     */
+    @Override
+    public void update(Event event) {
+        if (event instanceof BombExplodedEvent) {
+            removeBomb(((BombExplodedEvent) event).getBomb());
+        } else if (event instanceof TileChangedEvent) {
+            // Tường bị phá làm các tia nổ cùng hàng, cùng cột lan xa hơn; tường mới có thể chặn chúng
+            TileChangedEvent tileEvent = (TileChangedEvent) event;
+            int x = tileEvent.getX();
+            int y = tileEvent.getY();
+            int maxRange = 0;
+            for (Bomb bomb : explodeTicks.keySet()) {
+                maxRange = Math.max(maxRange, bomb.getExplosionRange());
+            }
+            for (int d = -maxRange; d <= maxRange; d++) {
+                clearCell(x + d, y);
+                clearCell(x, y + d);
+            }
+            remarkLines(x, y, maxRange);
+            blastTicksDirty = true;
+        }
+    }
+
+    /**
+     * Dựng lại danh sách lượt nổ của mọi ô nếu bom hoặc bản đồ đã thay đổi kể từ lần dựng trước.
+     * Dùng hai lượt duyệt (đếm rồi điền) giống bảng CSR nên chỉ cấp phát khi cần mở rộng mảng.
+     */
+    private void ensureBlastTicks() {
+        if (!blastTicksDirty) {
+            return;
+        }
+        blastTicksDirty = false;
+        Arrays.fill(blastStart, 0);
+        for (Bomb bomb : explodeTicks.keySet()) {
+            int count = collectBombCells(bomb);
+            for (int i = 0; i < count; i++) {
+                blastStart[rayCells[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < earliestTick.length; i++) {
+            blastStart[i + 1] += blastStart[i];
+        }
+        int total = blastStart[earliestTick.length];
+        if (blastTicks.length < total) {
+            blastTicks = new int[Math.max(total, blastTicks.length * 2)];
+        }
+        // Dời blastStart sang phải một ô để blastStart[i + 1] làm con trỏ ghi của ô i; sau khi điền xong
+        // blastStart[i + 1] trở về đúng vị trí kết thúc của ô i
+        for (int i = earliestTick.length; i > 0; i--) {
+            blastStart[i] = blastStart[i - 1];
+        }
+        for (Map.Entry<Bomb, Integer> entry : explodeTicks.entrySet()) {
+            int count = collectBombCells(entry.getKey());
+            for (int i = 0; i < count; i++) {
+                blastTicks[blastStart[rayCells[i] + 1]++] = entry.getValue();
+            }
+        }
+        // Sắp xếp chèn các lượt nổ của từng ô (mỗi ô chỉ có vài phần tử)
+        for (int cell = 0; cell < earliestTick.length; cell++) {
+            for (int i = blastStart[cell] + 1; i < blastStart[cell + 1]; i++) {
+                int tick = blastTicks[i];
+                int j = i;
+                while (j > blastStart[cell] && blastTicks[j - 1] > tick) {
+                    blastTicks[j] = blastTicks[j - 1];
+                    j--;
+                }
+                blastTicks[j] = tick;
+            }
+        }
+    }
+
+    /**
+     * Ghi các ô bị một quả bom đánh trúng vào rayCells.
+     *
+     * @return Số ô đã ghi.
+     */
+    private int collectBombCells(Bomb bomb) {
+        int range = bomb.getExplosionRange();
+        if (rayCells.length < 4 * range + 1) {
+            rayCells = new int[4 * range + 1];
+        }
+        int bx = bomb.getX();
+        int by = bomb.getY();
+        int count = 0;
+        if (bx >= 0 && bx < width && by >= 0 && by < height) {
+            rayCells[count++] = bx * height + by;
+        }
+        count = collectRay(bx, by, 0, -1, range, count);
+        count = collectRay(bx, by, 0, 1, range, count);
+        count = collectRay(bx, by, -1, 0, range, count);
+        return collectRay(bx, by, 1, 0, range, count);
+    }
+
+    private int collectRay(int bx, int by, int dx, int dy, int range, int count) {
+        for (int i = 1; i <= range; i++) {
+            int tx = bx + dx * i;
+            int ty = by + dy * i;
+            char tile = map.getTile(tx, ty);
+            if (tile == '#') {
+                break;
+            }
+            if (tx >= 0 && tx < width && ty >= 0 && ty < height) {
+                rayCells[count++] = tx * height + ty;
+            }
+            if (tile == 'D') {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private void clearCell(int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            earliestTick[x * height + y] = NEVER;
+        }
+    }
+
+    /**
+     * Đánh dấu lại các bom có thể có tia nổ đi qua hàng và cột vừa bị xóa quanh ô (x, y).
+     *
+     * @param clearedRange Số ô đã bị xóa về mỗi phía của (x, y).
+     */
+    private void remarkLines(int x, int y, int clearedRange) {
+        for (Map.Entry<Bomb, Integer> entry : explodeTicks.entrySet()) {
+            Bomb bomb = entry.getKey();
+            int reach = clearedRange + bomb.getExplosionRange();
+            if (Math.abs(bomb.getX() - x) <= reach || Math.abs(bomb.getY() - y) <= reach) {
+                markBomb(bomb, entry.getValue());
+            }
+        }
+    }
+
+    private void markBomb(Bomb bomb, int explodeTick) {
+        int bx = bomb.getX();
+        int by = bomb.getY();
+        markCell(bx, by, explodeTick);
+        int range = bomb.getExplosionRange();
+        markRay(bx, by, 0, -1, range, explodeTick); // Lên
+        markRay(bx, by, 0, 1, range, explodeTick);  // Xuống
+        markRay(bx, by, -1, 0, range, explodeTick); // Trái
+        markRay(bx, by, 1, 0, range, explodeTick);  // Phải
+    }
+
+    private void markRay(int bx, int by, int dx, int dy, int range, int explodeTick) {
+        for (int i = 1; i <= range; i++) {
+            int tx = bx + dx * i;
+            int ty = by + dy * i;
+            char tile = map.getTile(tx, ty);
+            if (tile == '#') {
+                break; // Gặp tường không phá hủy, ngừng lan
+            }
+            markCell(tx, ty, explodeTick);
+            if (tile == 'D') {
+                break; // Gặp tường phá hủy, ngừng lan sau ô này
+            }
+        }
+    }
+
+    private void markCell(int x, int y, int explodeTick) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            int index = x * height + y;
+            if (explodeTick < earliestTick[index]) {
+                earliestTick[index] = explodeTick;
+            }
+        }
+    }
+}
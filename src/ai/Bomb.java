@@ -4,7 +4,7 @@ package ai;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Lớp đại diện cho bom trong trò chơi.
@@ -135,25 +135,36 @@ public class Bomb implements Subject, Cloneable {
         if (!exploded) {
             if (countdown > 0) {
                 countdown--;
-                // Debug: In countdown mỗi lượt
-                System.out.println("Bom tại (" + x + ", " + y + ") còn " + countdown + " lượt trước khi nổ.");
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("Bom tại ({}, {}) còn {} lượt trước khi nổ.", x, y, countdown);
+                }
             }
             if (countdown == 0) {
                 exploded = true;
+                BombExplosionJfrEvent event = new BombExplosionJfrEvent();
+                event.begin();
                 // Xử lý nổ bom
                 processExplosion(game);
                 // Xử lý nổ bom, tính ra explosionTiles
                 List<int[]> explosionTiles = game.getExplosionTiles(this);
                 // Thông báo sự kiện nổ bom cho các Observer
                 notifyObservers(new BombExplodedEvent(this, explosionTiles));
-                // Debug: Thông báo bom đã nổ
-                System.out.println("Bom tại (" + x + ", " + y + ") đã nổ.");
+                if (event.shouldCommit()) {
+                    event.x = x;
+                    event.y = y;
+                    event.tileCount = explosionTiles.size();
+                    event.commit();
+                }
+                if (Log.INFO_ENABLED) {
+                    Log.info("Bom tại ({}, {}) đã nổ.", x, y);
+                }
             }
         } else {
             if (explosionDuration > 0) {
                 explosionDuration--;
-                // Debug: In explosion duration mỗi lượt
-                System.out.println("Bom tại (" + x + ", " + y + ") đang trong hiệu ứng nổ, còn " + explosionDuration + " lượt.");
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("Bom tại ({}, {}) đang trong hiệu ứng nổ, còn {} lượt.", x, y, explosionDuration);
+                }
             }
         }
     }
@@ -174,13 +185,17 @@ public class Bomb implements Subject, Cloneable {
             if (currentTile == 'D') { // Giả sử 'D' là tường phá hủy
                 // Phá hủy tường
                 map.setTile(tx, ty, ' ');
-                System.out.println("Tường phá hủy tại (" + tx + ", " + ty + ") đã bị phá hủy.");
+                if (Log.INFO_ENABLED) {
+                    Log.info("Tường phá hủy tại ({}, {}) đã bị phá hủy.", tx, ty);
+                }
                 // 20% cơ hội tạo vật phẩm sau khi phá hủy tường
-                Random rand = new Random();
+                SplittableRandom rand = game.getRandom();
                 if (rand.nextInt(100) < 20) {
                     Item.ItemType type = rand.nextBoolean() ? Item.ItemType.SPEED : Item.ItemType.EXPLOSION_RANGE;
                     game.getGameMap().addItem(new Item(tx, ty, type));
-                    System.out.println("Vật phẩm " + type + " xuất hiện tại (" + tx + ", " + ty + ").");
+                    if (Log.INFO_ENABLED) {
+                        Log.info("Vật phẩm {} xuất hiện tại ({}, {}).", type, tx, ty);
+                    }
                 }
             }
           // Các xử lý khác nếu cần thiết, ví dụ: ảnh hưởng đến các thực thể tại tile
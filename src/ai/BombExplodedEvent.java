@@ -6,11 +6,26 @@ import java.util.List;
 public class BombExplodedEvent extends Event {
     private Bomb bomb;               // Quả bom vừa nổ
     private List<int[]> explosionTiles; // Danh sách toạ độ chịu ảnh hưởng
+    // Vùng nổ là hình chữ thập quanh bom: đoạn [minX, maxX] trên hàng của bom và [minY, maxY] trên cột của bom,
+    // nên mỗi Observer kiểm tra mình có bị nổ không trong O(1) thay vì duyệt danh sách ô
+    private int minX, maxX, minY, maxY;
 
     // Constructor mới: nhận cả bomb lẫn explosionTiles
     public BombExplodedEvent(Bomb bomb, List<int[]> explosionTiles) {
         this.bomb = bomb;
         this.explosionTiles = explosionTiles;
+        minX = maxX = bomb.getX();
+        minY = maxY = bomb.getY();
+        for (int[] tile : explosionTiles) {
+            if (tile[1] == bomb.getY()) {
+                minX = Math.min(minX, tile[0]);
+                maxX = Math.max(maxX, tile[0]);
+            }
+            if (tile[0] == bomb.getX()) {
+                minY = Math.min(minY, tile[1]);
+                maxY = Math.max(maxY, tile[1]);
+            }
+        }
     }
 
     public Bomb getBomb() {
@@ -20,4 +35,16 @@ public class BombExplodedEvent extends Event {
     public List<int[]> getExplosionTiles() {
         return explosionTiles;
     }
+
+    /**
+     * Kiểm tra xem ô (x, y) có bị vụ nổ này ảnh hưởng không.
+     *
+     * @param x Tọa độ X.
+     * @param y Tọa độ Y.
+     * @return true nếu ô nằm trong vùng nổ.
+     */
+    public boolean isTileAffected(int x, int y) {
+        return y == bomb.getY() && x >= minX && x <= maxX
+                || x == bomb.getX() && y >= minY && y <= maxY;
+    }
 }
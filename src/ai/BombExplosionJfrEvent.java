@@ -0,0 +1,24 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sự kiện JFR khi một quả bom nổ (thời lượng là thời gian xử lý vụ nổ).
+ */
+@Name("ai.BombExplosion")
+@Label("Bomb Explosion")
+@Category({"Bomberman", "Game"})
+@Description("Một quả bom nổ")
+class BombExplosionJfrEvent extends jdk.jfr.Event {
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Tiles")
+    int tileCount;
+}
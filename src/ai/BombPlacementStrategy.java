@@ -26,7 +26,10 @@ public class BombPlacementStrategy implements MovementStrategy {
         // Đánh giá vị trí hiện tại để quyết định đặt bom
         if (shouldPlaceBomb(entity, game)) {
             game.placeBomb(entity);
-            System.out.println(entity.getClass().getSimpleName() + " đã đặt bom tại (" + entity.getX() + ", " + entity.getY() + ").");
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} đã đặt bom tại ({}, {}).",
+                        entity.getClass().getSimpleName(), entity.getX(), entity.getY());
+            }
         }
     }
 
@@ -65,11 +68,13 @@ public class BombPlacementStrategy implements MovementStrategy {
     private double calculateDanger(Entity entity, Game game) {
         double danger = 0.0;
 
-        // Nguy hiểm từ bom đang có
-        for (Bomb bomb : game.getBombs()) {
-            if (!bomb.isExploded()) {
-                int distance = Math.abs(bomb.getX() - entity.getX()) + Math.abs(bomb.getY() - entity.getY());
-                if (distance <= bomb.getExplosionRange()) {
+        // Nguy hiểm từ bom đang có: chỉ duyệt các quả bom khi ô nằm trong vùng nổ (tra BlastMap) và chỉ cộng
+        // các quả bom có tia nổ đánh trúng ô, càng gần bom càng nguy hiểm
+        BlastMap blastMap = game.getBlastMap();
+        if (blastMap.isInBlast(entity.getX(), entity.getY())) {
+            for (Bomb bomb : game.getBombs()) {
+                if (!bomb.isExploded() && blastMap.covers(bomb, entity.getX(), entity.getY())) {
+                    int distance = Math.abs(bomb.getX() - entity.getX()) + Math.abs(bomb.getY() - entity.getY());
                     danger += 1.0 - ((double) distance / bomb.getExplosionRange());
                 }
             }
@@ -4,33 +4,123 @@
 // File: ai/ChasePlayerStrategy.java
 package ai;
 
-import java.util.List;
-
+/**
+ * Chiến lược đuổi theo người chơi của Balloon.
+ *
+ * Mặc định mọi Balloon đuổi theo đọc bước đi từ trường khoảng cách dùng chung của trò chơi: một lần BFS từ người chơi
+ * phục vụ cả đám đông, nên chi phí không tăng theo số Balloon. D* Lite (sửa tăng dần đường đi của lượt trước) chỉ
+ * được dùng khi Balloon này là Balloon đuổi theo duy nhất còn sống: khi đó không có gì để chia sẻ và việc sửa
+ * tăng dần rẻ hơn dựng lại cả trường. Planner được tạo khi cần và được bỏ khi có thêm Balloon đuổi theo,
+ * để đám đông không giữ planner, Observer và trạng thái tìm kiếm riêng cho từng Balloon.
+ */
 public class ChasePlayerStrategy implements MovementStrategy {
     private Pathfinding pathfinding;
+    private GameMap map;
+    // Chỉ có khi Balloon là Balloon đuổi theo duy nhất, chỉ sửa phần thay đổi sau mỗi lượt
+    private DStarLite planner;
 
     public ChasePlayerStrategy(GameMap map) {
+        this.map = map;
         this.pathfinding = new Pathfinding(map);
+        // Balloon đuổi theo người chơi qua cả bản đồ: nhảy qua các hành lang thẳng khi chi phí đồng đều
+        this.pathfinding.setJumpPointSearch(true);
+    }
+
+    /**
+     * Hủy đăng ký planner khỏi bản đồ khi Balloon chết hoặc bị loại khỏi trò chơi,
+     * để planner không tiếp tục sửa đường đi sau mỗi TileChangedEvent.
+     *
+     * @param game Trò chơi chứa Balloon (bỏ qua bản sao, vì bản đồ sao chép không giữ Observer).
+     */
+    public void release(Game game) {
+        if (planner != null && game.getGameMap() == map) {
+            map.detach(planner);
+            planner = null;
+        }
+    }
+
+    /**
+     * Kiểm tra xem entity có phải Balloon đuổi theo duy nhất còn sống trong trò chơi không.
+     */
+    private static boolean isOnlyChaser(Entity entity, Game game) {
+        for (Balloon balloon : game.getBalloons()) {
+            if (balloon != entity && balloon.isAlive() && balloon.getMovementStrategy() instanceof ChasePlayerStrategy) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public void move(Entity entity, Game game) {
         Player player = game.getPlayer();
-        // Tìm đường đi an toàn đến người chơi
-        List<int[]> path = pathfinding.findSafePath(entity.getX(), entity.getY(), player.getX(), player.getY(), game);
-        if (path.size() > 0) {
-            int[] nextStep = path.get(0);
-            entity.setX(nextStep[0]);
-            entity.setY(nextStep[1]);
-            System.out.println(entity.getClass().getSimpleName() + " đã di chuyển đến (" + nextStep[0] + ", " + nextStep[1] + ") theo đường an toàn.");
+        int nextStep;
+        if (game.getGameMap() != map || !isOnlyChaser(entity, game)) {
+            release(game); // Đám đông dùng chung trường khoảng cách, không giữ planner riêng
+        } else {
+            if (planner == null) {
+                planner = new DStarLite(map);
+                map.attach(planner);
+            }
+            // Sửa lại đường đi của lượt trước theo vị trí mới của người chơi và các ô vừa thay đổi
+            nextStep = planner.nextStep(entity.getX(), entity.getY(), player.getX(), player.getY(), game.getBlastMap());
+            if (nextStep >= 0) {
+                int nextX = planner.cellX(nextStep);
+                int nextY = planner.cellY(nextStep);
+                entity.setX(nextX);
+                entity.setY(nextY);
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("{} đã di chuyển đến ({}, {}) theo đường đi được sửa tăng dần.",
+                            entity.getClass().getSimpleName(), nextX, nextY);
+                }
+                return;
+            }
+        }
+        // Nhiều Balloon đuổi theo, trò chơi sao chép hoặc không có bước an toàn:
+        // đọc bước đi từ trường khoảng cách dùng chung cho mọi Balloon
+        FlowField flowField = game.getPlayerFlowField();
+        nextStep = flowField.nextStep(entity.getX(), entity.getY(), game.getBlastMap());
+        if (nextStep >= 0) {
+            int nextX = flowField.cellX(nextStep);
+            int nextY = flowField.cellY(nextStep);
+            entity.setX(nextX);
+            entity.setY(nextY);
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} đã di chuyển đến ({}, {}) theo trường khoảng cách.",
+                        entity.getClass().getSimpleName(), nextX, nextY);
+            }
+            return;
+        }
+        // Không có bước an toàn theo trường khoảng cách: tìm đường theo lượt nổ chính xác (có thể đứng chờ bom nổ xong)
+        SpaceTimePathfinding spaceTime = game.getSpaceTimePathfinding();
+        nextStep = spaceTime.findNextStep(game, entity.getX(), entity.getY(), player.getX(), player.getY(),
+                entity.getTicksPerStep());
+        if (nextStep >= 0) {
+            int nextX = spaceTime.cellX(nextStep);
+            int nextY = spaceTime.cellY(nextStep);
+            entity.setX(nextX);
+            entity.setY(nextY);
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} đã di chuyển đến ({}, {}) theo đường tránh lượt nổ.",
+                        entity.getClass().getSimpleName(), nextX, nextY);
+            }
+            return;
+        }
+        // Cuối cùng thử A* (có tính nguy hiểm)
+        nextStep = pathfinding.findNextStep(entity.getX(), entity.getY(), player.getX(), player.getY(), game);
+        if (nextStep >= 0) {
+            int nextX = pathfinding.cellX(nextStep);
+            int nextY = pathfinding.cellY(nextStep);
+            entity.setX(nextX);
+            entity.setY(nextY);
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} đã di chuyển đến ({}, {}) theo đường an toàn.",
+                        entity.getClass().getSimpleName(), nextX, nextY);
+            }
         } else {
             // Nếu không tìm được đường an toàn, di chuyển ngẫu nhiên
-            new RandomMovementStrategy().move(entity, game);
-            System.out.println(entity.getClass().getSimpleName() + " không tìm được đường an toàn, di chuyển ngẫu nhiên.");
+            new RandomMovementStrategy(game.getRandom().split()).move(entity, game);
+            Log.debug("{} không tìm được đường an toàn, di chuyển ngẫu nhiên.", entity.getClass().getSimpleName());
         }
     }
-
-
-
-
 }
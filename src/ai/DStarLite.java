@@ -0,0 +1,280 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Tìm đường tăng dần D* Lite cho một thực thể đuổi theo mục tiêu di chuyển.
+ *
+ * Giá trị g là khoảng cách từ mỗi ô tới mục tiêu, tìm ngược từ mục tiêu về phía thực thể. Trạng thái tìm kiếm
+ * được giữ lại giữa các lượt nên chỉ phần bị ảnh hưởng được sửa lại:
+ * - Thực thể di chuyển: cộng dồn km như D* Lite gốc, không phải sửa gì.
+ * - Mục tiêu di chuyển: coi như một đỉnh mục tiêu ảo nối với ô của mục tiêu bằng cạnh chi phí 0, nên đổi ô mục tiêu
+ *   chỉ là thay đổi chi phí của hai cạnh (ô cũ và ô mới).
+ * - Ô của bản đồ thay đổi (TileChangedEvent, ví dụ tường D bị phá): cập nhật ô đó và các ô kề.
+ * Chi phí mỗi lượt vì vậy tỉ lệ với phần thay đổi chứ không phải với kích thước bản đồ.
+ *
+ * Đối tượng cần được đăng ký làm Observer của bản đồ và không được dùng đồng thời từ nhiều luồng.
+ */
+public class DStarLite implements Observer {
+    private static final int INFINITE = Integer.MAX_VALUE / 2;
+    // Khóa (k1, k2) được ghép thành một số double k1 * KEY_SCALE + k2 (chính xác vì nhỏ hơn 2^53)
+    private static final double KEY_SCALE = 1 << 20;
+    // Ngưỡng nguy hiểm của bom giống Pathfinding và FlowField
+    private static final double DANGER_THRESHOLD = 0.7;
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
+    private final GameMap map;
+    private final int width;
+    private final int height;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedMinHeap queue;
+    private boolean initialized;
+    private int start = -1;
+    private int last = -1;
+    private int goal = -1;
+    private int km;
+    private int expandedCount;
+
+    /**
+     * Constructor tạo bộ tìm đường cho một bản đồ.
+     *
+     * @param map Bản đồ trò chơi.
+     */
+    public DStarLite(GameMap map) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.g = new int[width * height];
+        this.rhs = new int[width * height];
+        this.queue = new IndexedMinHeap(width * height);
+    }
+
+    /**
+     * Chọn bước đi tiếp theo từ (startX, startY) về phía (goalX, goalY), sửa lại đường đi cũ thay vì tìm lại từ đầu.
+     *
+     * @param startX   Tọa độ X của thực thể.
+     * @param startY   Tọa độ Y của thực thể.
+     * @param goalX    Tọa độ X của mục tiêu.
+     * @param goalY    Tọa độ Y của mục tiêu.
+     * @param blastMap Bản đồ vùng nổ để tránh ô sắp nổ, hoặc null nếu không cần.
+     * @return Chỉ số ô (x * height + y) của bước tiếp theo, hoặc -1 nếu không có đường đi an toàn (hoặc đã tới đích).
+     */
+    public int nextStep(int startX, int startY, int goalX, int goalY, BlastMap blastMap) {
+        if (!inBounds(startX, startY) || !map.isWalkable(goalX, goalY)) {
+            return -1;
+        }
+        int newStart = startX * height + startY;
+        int newGoal = goalX * height + goalY;
+        if (!initialized) {
+            initialize(newStart, newGoal);
+        } else {
+            if (newStart != start) {
+                start = newStart;
+                km += heuristic(last, start);
+                last = start;
+            }
+            if (newGoal != goal) {
+                moveGoal(newGoal);
+            }
+        }
+        expandedCount = 0;
+        computeShortestPath();
+
+        if (start == goal) {
+            return -1;
+        }
+        // Chỉ đi theo ô nằm trên một đường đi ngắn nhất (rhs của ô hiện tại là độ dài đường đi đó)
+        int best = -1;
+        int bestCost = rhs[start];
+        for (int d = 0; d < 4; d++) {
+            int nx = startX + DIR_X[d];
+            int ny = startY + DIR_Y[d];
+            if (!map.isWalkable(nx, ny)) {
+                continue;
+            }
+            int neighbor = nx * height + ny;
+            int cost = 1 + g[neighbor];
+            if (cost > bestCost || cost >= INFINITE) {
+                continue;
+            }
+            if (blastMap != null) {
+                int ticks = blastMap.ticksUntilBlast(nx, ny);
+                if (ticks != BlastMap.NEVER && (ticks == 0 || 10.0 / ticks > DANGER_THRESHOLD)) {
+                    continue;
+                }
+            }
+            if (best < 0 || cost < bestCost) {
+                best = neighbor;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    public int cellX(int cell) {
+        return cell / height;
+    }
+
+    public int cellY(int cell) {
+        return cell % height;
+    }
+
+    /**
+     * Lấy số ô đã mở rộng trong lần tìm gần nhất.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Nhận sự kiện thay đổi ô của bản đồ để sửa lại các cạnh liên quan.
+     *
+     * @param event Sự kiện nhận được.
+     */
+    @Override
+    public void update(Event event) {
+        if (!initialized || !(event instanceof TileChangedEvent)) {
+            return;
+        }
+        TileChangedEvent tileEvent = (TileChangedEvent) event;
+        int x = tileEvent.getX();
+        int y = tileEvent.getY();
+        if (!inBounds(x, y)) {
+            return;
+        }
+        // Chi phí các cạnh nối với ô thay đổi đã khác: tính lại rhs của ô đó và các ô kề
+        updateRhs(x * height + y);
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DIR_X[d];
+            int ny = y + DIR_Y[d];
+            if (inBounds(nx, ny)) {
+                updateRhs(nx * height + ny);
+            }
+        }
+    }
+
+    private void initialize(int newStart, int newGoal) {
+        Arrays.fill(g, INFINITE);
+        Arrays.fill(rhs, INFINITE);
+        queue.clear();
+        km = 0;
+        start = newStart;
+        last = newStart;
+        goal = newGoal;
+        rhs[goal] = 0;
+        queue.push(goal, key(goal));
+        initialized = true;
+    }
+
+    /**
+     * Đổi ô mục tiêu: cạnh 0 tới đỉnh mục tiêu ảo chuyển từ ô cũ sang ô mới.
+     */
+    private void moveGoal(int newGoal) {
+        int oldGoal = goal;
+        goal = newGoal;
+        updateRhs(oldGoal);
+        updateRhs(newGoal);
+    }
+
+    private void computeShortestPath() {
+        while (!queue.isEmpty()
+                && (queue.peekPriority() < key(start) || rhs[start] > g[start])) {
+            int u = queue.peek();
+            double oldKey = queue.peekPriority();
+            double newKey = key(u);
+            expandedCount++;
+            if (oldKey < newKey) {
+                queue.push(u, newKey);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                queue.remove(u);
+                relaxPredecessors(u);
+            } else {
+                g[u] = INFINITE;
+                updateVertex(u);
+                // Các ô kề có thể đã dùng u làm đường đi ngắn nhất
+                int ux = u / height;
+                int uy = u - ux * height;
+                for (int d = 0; d < 4; d++) {
+                    int nx = ux + DIR_X[d];
+                    int ny = uy + DIR_Y[d];
+                    if (inBounds(nx, ny)) {
+                        updateRhs(nx * height + ny);
+                    }
+                }
+            }
+        }
+    }
+
+    private void relaxPredecessors(int u) {
+        if (!map.isWalkable(u / height, u % height)) {
+            return;
+        }
+        int ux = u / height;
+        int uy = u - ux * height;
+        int cost = g[u] + 1;
+        for (int d = 0; d < 4; d++) {
+            int nx = ux + DIR_X[d];
+            int ny = uy + DIR_Y[d];
+            if (!map.isWalkable(nx, ny)) {
+                continue;
+            }
+            int s = nx * height + ny;
+            if (s != goal && cost < rhs[s]) {
+                rhs[s] = cost;
+                updateVertex(s);
+            }
+        }
+    }
+
+    /**
+     * Tính lại rhs của một ô từ các ô kề rồi cập nhật vị trí của nó trong hàng đợi.
+     */
+    private void updateRhs(int cell) {
+        if (cell == goal) {
+            rhs[cell] = map.isWalkable(cell / height, cell % height) ? 0 : INFINITE;
+        } else {
+            rhs[cell] = INFINITE;
+            int x = cell / height;
+            int y = cell - x * height;
+            if (map.isWalkable(x, y)) {
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DIR_X[d];
+                    int ny = y + DIR_Y[d];
+                    if (map.isWalkable(nx, ny)) {
+                        rhs[cell] = Math.min(rhs[cell], g[nx * height + ny] + 1);
+                    }
+                }
+            }
+        }
+        updateVertex(cell);
+    }
+
+    private void updateVertex(int cell) {
+        if (g[cell] != rhs[cell]) {
+            queue.push(cell, key(cell));
+        } else if (queue.contains(cell)) {
+            queue.remove(cell);
+        }
+    }
+
+    private double key(int cell) {
+        int k2 = Math.min(g[cell], rhs[cell]);
+        if (k2 >= INFINITE) {
+            return INFINITE * KEY_SCALE + INFINITE;
+        }
+        return (k2 + heuristic(start, cell) + km) * KEY_SCALE + k2;
+    }
+
+    private int heuristic(int a, int b) {
+        int ax = a / height;
+        int bx = b / height;
+        return Math.abs(ax - bx) + Math.abs(a - ax * height - (b - bx * height));
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+}
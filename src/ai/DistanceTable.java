@@ -0,0 +1,241 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Bảng khoảng cách đường đi ngắn nhất giữa mọi cặp ô của một màn chơi.
+ *
+ * Bố cục tường '#' không đổi trong một màn nên chỉ các ô không phải '#' (ô trống và tường phá hủy) được đánh
+ * chỉ số, khoảng cách được lưu gọn trong một mảng short[n * n]. Khoảng cách tính theo các ô đang walkable;
+ * tường D chưa bị phá là không tới được. Khi một tường D bị phá (TileChangedEvent D -> ' '), bảng được cập nhật
+ * tăng dần trong O(n^2) bằng cách chèn đỉnh mới: d(a, b) = min(d(a, b), d(a, w) + d(w, b)).
+ * Các thay đổi khác (ô bị chặn lại, ô '#' thay đổi) làm bảng được dựng lại ở lần truy vấn sau.
+ *
+ * Bảng của bản sao trò chơi dùng chung mảng với bảng gốc (copy-on-write): mảng chỉ được sao chép khi một trong
+ * hai bảng cần sửa, nên Game.clone() không phải chạy lại BFS từ mọi ô.
+ *
+ * Bảng chỉ được sửa trong luồng trò chơi, các luồng tìm kiếm chỉ đọc.
+ */
+public class DistanceTable implements Observer {
+    // Khoảng cách của hai ô không tới được nhau
+    public static final int UNREACHABLE = Short.MAX_VALUE;
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
+    private final GameMap map;
+    private final int width;
+    private final int height;
+    // Chỉ số gọn của ô x * height + y, -1 với ô '#'
+    private int[] nodeOf;
+    private int nodeCount;
+    private short[] distances;
+    private int[] queue;
+    private volatile boolean dirty = true;
+    // nodeOf và distances đang được dùng chung với bảng khác, phải sao chép trước khi sửa
+    private boolean shared;
+    private int rebuildCount;
+
+    /**
+     * Constructor tạo bảng khoảng cách cho một bản đồ (bảng cần được đăng ký làm Observer của bản đồ).
+     *
+     * @param map Bản đồ trò chơi.
+     */
+    public DistanceTable(GameMap map) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.nodeOf = new int[width * height];
+    }
+
+    /**
+     * Constructor tạo bảng cho bản đồ sao chép, dùng chung mảng khoảng cách với bảng gốc cho tới khi một trong hai
+     * bảng bị sửa (bảng cần được đăng ký làm Observer của bản đồ sao chép).
+     *
+     * @param other Bảng của bản đồ gốc.
+     * @param map   Bản đồ sao chép.
+     */
+    public DistanceTable(DistanceTable other, GameMap map) {
+        this(map);
+        synchronized (other) {
+            if (!other.dirty) {
+                this.nodeOf = other.nodeOf;
+                this.nodeCount = other.nodeCount;
+                this.distances = other.distances;
+                this.shared = true;
+                this.dirty = false;
+                other.shared = true;
+            }
+        }
+    }
+
+    /**
+     * Lấy độ dài đường đi ngắn nhất giữa (x1, y1) và (x2, y2) qua các ô walkable.
+     *
+     * @return Số bước, hoặc UNREACHABLE nếu không có đường đi (hoặc một ô nằm ngoài bản đồ hay là tường '#').
+     */
+    public int distance(int x1, int y1, int x2, int y2) {
+        if (x1 < 0 || x1 >= width || y1 < 0 || y1 >= height || x2 < 0 || x2 >= width || y2 < 0 || y2 >= height) {
+            return UNREACHABLE;
+        }
+        if (dirty) {
+            rebuild();
+        }
+        int a = nodeOf[x1 * height + y1];
+        int b = nodeOf[x2 * height + y2];
+        if (a < 0 || b < 0) {
+            return UNREACHABLE;
+        }
+        return distances[a * nodeCount + b];
+    }
+
+    /**
+     * Lấy khoảng cách đường đi, hoặc khoảng cách Manhattan nếu hai ô không tới được nhau
+     * (ví dụ bị ngăn bởi tường phá hủy).
+     */
+    public int distanceOrManhattan(int x1, int y1, int x2, int y2) {
+        int distance = distance(x1, y1, x2, y2);
+        return distance != UNREACHABLE ? distance : Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    /**
+     * Lấy số lần bảng bị dựng lại toàn bộ.
+     */
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Nhận sự kiện thay đổi ô: tường bị phá được chèn tăng dần, các thay đổi khác đánh dấu dựng lại.
+     *
+     * @param event Sự kiện nhận được.
+     */
+    @Override
+    public void update(Event event) {
+        if (!(event instanceof TileChangedEvent) || dirty) {
+            return;
+        }
+        TileChangedEvent tileEvent = (TileChangedEvent) event;
+        int x = tileEvent.getX();
+        int y = tileEvent.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return;
+        }
+        int node = nodeOf[x * height + y];
+        if (node >= 0 && tileEvent.getOldTile() != ' ' && tileEvent.getNewTile() == ' ') {
+            unshare();
+            insertNode(x, y, node);
+        } else if (node < 0 || tileEvent.getOldTile() == ' ' || tileEvent.getNewTile() == '#') {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ bảng bằng một lần BFS từ mỗi ô walkable.
+     */
+    private synchronized void rebuild() {
+        if (!dirty) {
+            return;
+        }
+        rebuildCount++;
+        if (shared) {
+            // Không ghi đè mảng của bảng khác: cấp phát mảng mới
+            nodeOf = new int[width * height];
+            distances = null;
+            shared = false;
+        }
+        nodeCount = 0;
+        for (int cell = 0; cell < nodeOf.length; cell++) {
+            nodeOf[cell] = map.getTile(cell / height, cell % height) == '#' ? -1 : nodeCount++;
+        }
+        if (distances == null || distances.length != nodeCount * nodeCount) {
+            distances = new short[nodeCount * nodeCount];
+            queue = new int[width * height];
+        }
+        Arrays.fill(distances, (short) UNREACHABLE);
+        for (int cell = 0; cell < nodeOf.length; cell++) {
+            int source = nodeOf[cell];
+            if (source < 0 || !map.isWalkable(cell / height, cell % height)) {
+                continue;
+            }
+            int row = source * nodeCount;
+            int head = 0;
+            int tail = 0;
+            distances[row + source] = 0;
+            queue[tail++] = cell;
+            while (head < tail) {
+                int current = queue[head++];
+                int cx = current / height;
+                int cy = current - cx * height;
+                short next = (short) (distances[row + nodeOf[current]] + 1);
+                for (int d = 0; d < 4; d++) {
+                    int nx = cx + DIR_X[d];
+                    int ny = cy + DIR_Y[d];
+                    if (!map.isWalkable(nx, ny)) {
+                        continue;
+                    }
+                    int neighbor = nx * height + ny;
+                    if (distances[row + nodeOf[neighbor]] == UNREACHABLE) {
+                        distances[row + nodeOf[neighbor]] = next;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Sao chép các mảng đang dùng chung để có thể sửa tại chỗ.
+     */
+    private synchronized void unshare() {
+        if (shared) {
+            nodeOf = nodeOf.clone();
+            distances = distances.clone();
+            shared = false;
+        }
+    }
+
+    /**
+     * Chèn ô (x, y) vừa trở nên walkable: khoảng cách tới nó đi qua một ô kề, rồi mọi cặp có thể đi tắt qua nó.
+     */
+    private void insertNode(int x, int y, int node) {
+        int n = nodeCount;
+        // d(a, w) = 1 + min d(a, ô kề) (đường đi ngắn nhất tới w không đi qua w)
+        int row = node * n;
+        for (int a = 0; a < n; a++) {
+            distances[row + a] = (short) UNREACHABLE;
+        }
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DIR_X[d];
+            int ny = y + DIR_Y[d];
+            if (!map.isWalkable(nx, ny)) {
+                continue;
+            }
+            int neighborRow = nodeOf[nx * height + ny] * n;
+            for (int a = 0; a < n; a++) {
+                int distance = distances[neighborRow + a] + 1;
+                if (distance < distances[row + a]) {
+                    distances[row + a] = (short) distance;
+                }
+            }
+        }
+        distances[row + node] = 0;
+        for (int a = 0; a < n; a++) {
+            distances[a * n + node] = distances[row + a];
+        }
+        // Mọi cặp (a, b) có thể đi tắt qua w
+        for (int a = 0; a < n; a++) {
+            int toNode = distances[row + a];
+            if (toNode == UNREACHABLE || a == node) {
+                continue;
+            }
+            int aRow = a * n;
+            for (int b = 0; b < n; b++) {
+                int distance = toNode + distances[row + b];
+                if (distance < distances[aRow + b]) {
+                    distances[aRow + b] = (short) distance;
+                }
+            }
+        }
+    }
+}
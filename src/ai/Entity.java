@@ -2,8 +2,6 @@
 
 package ai;
 
-import java.util.List;
-
 /**
  * Lớp trừu tượng đại diện cho một thực thể trong trò chơi.
  */
@@ -11,6 +9,8 @@ public abstract class Entity implements Cloneable, Observer {
     protected int x, y;
     protected boolean alive = true;
     protected int bombCount = 1;
+    // Slot của thực thể trong OccupancyGrid của trò chơi, -1 nếu chưa được thêm
+    int occupancySlot = -1;
 
     @Override
     public Entity clone() {
@@ -36,13 +36,11 @@ public abstract class Entity implements Cloneable, Observer {
     public void update(Event event) {
         if (event instanceof BombExplodedEvent) {
             BombExplodedEvent bombEvent = (BombExplodedEvent) event;
-            List<int[]> explosionTiles = bombEvent.getExplosionTiles();
             // Kiểm tra nếu thực thể đang ở trong phạm vi nổ của bom
-            for (int[] tile : explosionTiles) {
-                if (this.x == tile[0] && this.y == tile[1]) {
-                    this.alive = false;
-                    System.out.println(this.getClass().getSimpleName() + " tại (" + x + ", " + y + ") bị nổ.");
-                    break;
+            if (bombEvent.isTileAffected(this.x, this.y)) {
+                this.alive = false;
+                if (Log.INFO_ENABLED) {
+                    Log.info("{} tại ({}, {}) bị nổ.", getClass().getSimpleName(), x, y);
                 }
             }
         }
@@ -55,7 +53,9 @@ public abstract class Entity implements Cloneable, Observer {
     public boolean placeBomb() {
         if (bombCount > 0) { // Chỉ cho phép đặt bom nếu còn bombCount
             bombCount--;
-            System.out.println(this.getClass().getSimpleName() + " đã đặt một quả bom tại: (" + x + ", " + y + ")");
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} đã đặt một quả bom tại: ({}, {})", getClass().getSimpleName(), x, y);
+            }
             return true; // Đặt bom thành công
         }
         return false; // Không còn bom để đặt
@@ -79,22 +79,23 @@ public abstract class Entity implements Cloneable, Observer {
      */
     protected abstract int getExplosionRange();
 
+    /**
+     * Lấy số lượt trò chơi (lần gọi updateGame) giữa hai bước đi liên tiếp của thực thể.
+     * Mặc định thực thể đi một bước mỗi vòng, như người chơi.
+     * @return số lượt cho một bước.
+     */
+    public int getTicksPerStep() {
+        return Game.UPDATES_PER_ROUND;
+    }
+
     /**
      * Kiểm tra xem vị trí của thực thể có an toàn không (không nằm trong phạm vi nổ của bom).
      * @param game Trạng thái trò chơi hiện tại.
      * @return true nếu vị trí an toàn, false nếu có bom nổ gần.
      */
     public boolean isSafe(Game game) {
-        for (Bomb bomb : game.getBombs()) {
-            if (!bomb.isExploded()) {
-                int bombDistance = Math.abs(bomb.getX() - this.x) + Math.abs(bomb.getY() - this.y);
-                // Kiểm tra nếu thực thể đang đứng trong phạm vi bom
-                if (bombDistance <= bomb.getExplosionRange()) {
-                    return false; // Không an toàn
-                }
-            }
-        }
-        return true; // An toàn
+        // Kiểm tra nếu thực thể đang đứng trong phạm vi bom (tra trên bản đồ vùng nổ)
+        return !game.getBlastMap().isInBlast(this.x, this.y);
     }
 
     /**
@@ -105,7 +106,7 @@ public abstract class Entity implements Cloneable, Observer {
     public boolean canPlaceBombSafely(Game game) {
         // Kiểm tra nếu vị trí của AI không an toàn
         if (!isSafe(game)) {
-            System.out.println("AI không thể đặt bom vì vị trí không an toàn.");
+            Log.debug("AI không thể đặt bom vì vị trí không an toàn.");
             return false;
         }
         // Nếu vị trí an toàn, thực hiện đặt bom
@@ -148,7 +149,9 @@ public abstract class Entity implements Cloneable, Observer {
         // Kiểm tra xem thực thể có trúng bom không
         if (this.x == bomb.getX() && this.y == bomb.getY()) {
             this.alive = false;
-            System.out.println(this.getClass().getSimpleName() + " tại (" + x + ", " + y + ") bị trúng bom.");
+            if (Log.INFO_ENABLED) {
+                Log.info("{} tại ({}, {}) bị trúng bom.", getClass().getSimpleName(), x, y);
+            }
         }
     }
 }
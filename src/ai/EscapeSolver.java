@@ -0,0 +1,215 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Tìm ô an toàn gần nhất có thể tới được bằng một lần BFS duy nhất, có tính thời gian nổ của bom.
+ * Một ô chỉ đi qua được nếu thực thể rời khỏi nó trước lượt ô đó bị nổ (theo BlastMap, cộng thêm
+ * một quả bom giả định nếu cần kiểm tra trước khi đặt bom). Ô an toàn là ô walkable không bị quả bom nào đánh trúng.
+ * Trong các ô an toàn gần nhất, ô có nhiều hướng đi nhất được chọn để tránh ngõ cụt.
+ *
+ * Các mảng được cấp phát một lần và đánh dấu bằng generation stamp nên có thể dùng lại mà không tạo rác.
+ */
+public class EscapeSolver {
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
+    private final int width;
+    private final int height;
+    private final int[] distance;
+    private final int[] firstStep; // Ô đầu tiên trên đường đi từ ô bắt đầu tới mỗi ô
+    private final int[] stamp;
+    private final int[] queue;
+    private int generation;
+
+    // Kết quả của lần tìm gần nhất
+    private int targetX = -1;
+    private int targetY = -1;
+    private int nextStepX = -1;
+    private int nextStepY = -1;
+    private int targetDistance = -1;
+
+    /**
+     * Constructor tạo bộ tìm đường thoát cho bản đồ có kích thước (width, height).
+     *
+     * @param width  Chiều rộng bản đồ.
+     * @param height Chiều cao bản đồ.
+     */
+    public EscapeSolver(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        this.distance = new int[cells];
+        this.firstStep = new int[cells];
+        this.stamp = new int[cells];
+        this.queue = new int[cells];
+    }
+
+    /**
+     * Tìm ô an toàn gần nhất từ (startX, startY) với các bom hiện có.
+     *
+     * @param game         Trạng thái trò chơi hiện tại.
+     * @param startX       Tọa độ X bắt đầu.
+     * @param startY       Tọa độ Y bắt đầu.
+     * @param ticksPerStep Số lượt trò chơi giữa hai bước đi của thực thể (xem Entity.getTicksPerStep).
+     * @return true nếu tìm được ô an toàn (kết quả đọc bằng getTargetX/Y, getNextStepX/Y).
+     */
+    public boolean solve(Game game, int startX, int startY, int ticksPerStep) {
+        return solve(game, startX, startY, -1, -1, 0, 0, ticksPerStep);
+    }
+
+    /**
+     * Tìm ô an toàn gần nhất từ (startX, startY), giả định có thêm một quả bom tại (bombX, bombY).
+     *
+     * @param game          Trạng thái trò chơi hiện tại.
+     * @param startX        Tọa độ X bắt đầu.
+     * @param startY        Tọa độ Y bắt đầu.
+     * @param bombX         Tọa độ X của bom giả định, -1 nếu không có.
+     * @param bombY         Tọa độ Y của bom giả định.
+     * @param bombRange     Phạm vi nổ của bom giả định.
+     * @param bombCountdown Số lượt trước khi bom giả định nổ.
+     * @param ticksPerStep  Số lượt trò chơi giữa hai bước đi của thực thể (xem Entity.getTicksPerStep).
+     * @return true nếu tìm được ô an toàn (kết quả đọc bằng getTargetX/Y, getNextStepX/Y).
+     */
+    public boolean solve(Game game, int startX, int startY, int bombX, int bombY, int bombRange, int bombCountdown,
+                         int ticksPerStep) {
+        ticksPerStep = Math.max(1, ticksPerStep);
+        targetX = targetY = nextStepX = nextStepY = targetDistance = -1;
+        if (startX < 0 || startX >= width || startY < 0 || startY >= height) {
+            return false;
+        }
+        GameMap map = game.getGameMap();
+        BlastMap blastMap = game.getBlastMap();
+        nextGeneration();
+
+        int start = startX * height + startY;
+        int head = 0;
+        int tail = 0;
+        stamp[start] = generation;
+        distance[start] = 0;
+        firstStep[start] = start;
+        queue[tail++] = start;
+        int best = -1;
+        int bestDirections = -1;
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell / height;
+            int cy = cell - cx * height;
+            int steps = distance[cell];
+            if (best >= 0 && steps > distance[best]) {
+                break; // Đã xét hết các ô cùng khoảng cách với ô an toàn gần nhất
+            }
+            int blastTick = blastTick(blastMap, map, cx, cy, bombX, bombY, bombRange, bombCountdown);
+            if (blastTick == BlastMap.NEVER) {
+                // Ô an toàn: chọn ô có nhiều hướng đi nhất trong các ô gần nhất
+                int directions = countWalkableNeighbours(map, cx, cy);
+                if (directions > bestDirections) {
+                    best = cell;
+                    bestDirections = directions;
+                }
+                continue;
+            }
+            // Chỉ đi tiếp nếu rời được ô này trước khi nó nổ
+            if ((steps + 1) * ticksPerStep > blastTick) {
+                continue;
+            }
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (!map.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int neighbor = nx * height + ny;
+                if (stamp[neighbor] == generation) {
+                    continue;
+                }
+                stamp[neighbor] = generation;
+                distance[neighbor] = steps + 1;
+                firstStep[neighbor] = cell == start ? neighbor : firstStep[cell];
+                queue[tail++] = neighbor;
+            }
+        }
+        if (best < 0) {
+            return false;
+        }
+        targetX = best / height;
+        targetY = best % height;
+        targetDistance = distance[best];
+        if (best != start) {
+            nextStepX = firstStep[best] / height;
+            nextStepY = firstStep[best] % height;
+        }
+        return true;
+    }
+
+    /**
+     * Số lượt còn lại trước khi ô (x, y) bị nổ, tính cả quả bom giả định (vùng nổ bị tường chắn).
+     */
+    private int blastTick(BlastMap blastMap, GameMap map, int x, int y,
+                          int bombX, int bombY, int bombRange, int bombCountdown) {
+        int tick = blastMap.ticksUntilBlast(x, y);
+        if (bombX < 0 || bombCountdown >= tick) {
+            return tick;
+        }
+        if (x == bombX && y == bombY) {
+            return bombCountdown;
+        }
+        if (x != bombX && y != bombY) {
+            return tick;
+        }
+        int dx = Integer.signum(x - bombX);
+        int dy = Integer.signum(y - bombY);
+        int length = Math.abs(x - bombX) + Math.abs(y - bombY);
+        if (length > bombRange) {
+            return tick;
+        }
+        // Tia nổ bị chặn nếu có tường giữa bom và ô (tường phá hủy chỉ chặn các ô phía sau nó)
+        for (int i = 1; i < length; i++) {
+            if (map.getTile(bombX + dx * i, bombY + dy * i) != ' ') {
+                return tick;
+            }
+        }
+        return bombCountdown;
+    }
+
+    private int countWalkableNeighbours(GameMap map, int x, int y) {
+        int count = 0;
+        for (int d = 0; d < 4; d++) {
+            if (map.isWalkable(x + DIR_X[d], y + DIR_Y[d])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * Lấy tọa độ X của bước đi đầu tiên tới ô an toàn, -1 nếu đang đứng ở ô an toàn.
+     */
+    public int getNextStepX() {
+        return nextStepX;
+    }
+
+    public int getNextStepY() {
+        return nextStepY;
+    }
+
+    public int getTargetDistance() {
+        return targetDistance;
+    }
+}
@@ -0,0 +1,156 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Trường khoảng cách (flow field) từ một ô nguồn tới mọi ô walkable, tính bằng một lần BFS ngược.
+ * Mọi Balloon đuổi theo cùng một mục tiêu đọc bước đi tiếp theo từ trường này trong O(1)
+ * thay vì mỗi Balloon chạy A* riêng. Trường chỉ được tính lại khi nguồn di chuyển
+ * hoặc khi một ô của bản đồ thay đổi (TileChangedEvent).
+ */
+public class FlowField implements Observer {
+    // Khoảng cách của ô không tới được nguồn
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Ngưỡng nguy hiểm của bom giống Pathfinding: tránh ô sẽ nổ trong vòng chưa đầy 15 lượt
+    private static final double DANGER_THRESHOLD = 0.7;
+
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
+    private final GameMap map;
+    private final int width;
+    private final int height;
+    private final int[] distance;
+    private final int[] queue;
+    private int sourceX = -1;
+    private int sourceY = -1;
+    private boolean dirty = true;
+    private int recomputeCount;
+
+    /**
+     * Constructor tạo trường khoảng cách cho một bản đồ.
+     *
+     * @param map Bản đồ trò chơi (FlowField cần được đăng ký làm Observer của bản đồ).
+     */
+    public FlowField(GameMap map) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.distance = new int[width * height];
+        this.queue = new int[width * height];
+    }
+
+    /**
+     * Đặt ô nguồn, tính lại trường nếu nguồn đã di chuyển hoặc bản đồ đã thay đổi.
+     *
+     * @param x Tọa độ X của nguồn.
+     * @param y Tọa độ Y của nguồn.
+     */
+    public void setSource(int x, int y) {
+        if (dirty || x != sourceX || y != sourceY) {
+            sourceX = x;
+            sourceY = y;
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        dirty = false;
+        recomputeCount++;
+        Arrays.fill(distance, UNREACHABLE);
+        if (sourceX < 0 || sourceX >= width || sourceY < 0 || sourceY >= height) {
+            return;
+        }
+        int head = 0;
+        int tail = 0;
+        int source = sourceX * height + sourceY;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell / height;
+            int cy = cell - cx * height;
+            int next = distance[cell] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (!map.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int neighbor = nx * height + ny;
+                if (distance[neighbor] == UNREACHABLE) {
+                    distance[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lấy khoảng cách (số bước) từ ô (x, y) tới nguồn.
+     *
+     * @param x Tọa độ X.
+     * @param y Tọa độ Y.
+     * @return Số bước, hoặc UNREACHABLE nếu không tới được.
+     */
+    public int distanceAt(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return UNREACHABLE;
+        }
+        return distance[x * height + y];
+    }
+
+    /**
+     * Chọn bước đi tiếp theo từ (x, y) về phía nguồn: ô kề gần nguồn nhất, bỏ qua ô sắp bị nổ.
+     *
+     * @param x         Tọa độ X hiện tại.
+     * @param y         Tọa độ Y hiện tại.
+     * @param blastMap  Bản đồ vùng nổ để tránh ô nguy hiểm, hoặc null nếu không cần.
+     * @return Chỉ số ô (x * height + y) của bước tiếp theo, hoặc -1 nếu không có bước nào tiến gần nguồn hơn.
+     */
+    public int nextStep(int x, int y, BlastMap blastMap) {
+        int best = -1;
+        int bestDistance = distanceAt(x, y);
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DIR_X[d];
+            int ny = y + DIR_Y[d];
+            int nd = distanceAt(nx, ny);
+            if (nd >= bestDistance) {
+                continue;
+            }
+            if (blastMap != null) {
+                int ticks = blastMap.ticksUntilBlast(nx, ny);
+                if (ticks != BlastMap.NEVER && (ticks == 0 || 10.0 / ticks > DANGER_THRESHOLD)) {
+                    continue; // Tránh ô sắp nổ
+                }
+            }
+            best = nx * height + ny;
+            bestDistance = nd;
+        }
+        return best;
+    }
+
+    public int cellX(int cell) {
+        return cell / height;
+    }
+
+    public int cellY(int cell) {
+        return cell % height;
+    }
+
+    public int getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    /**
+     * Đánh dấu trường cần tính lại khi một ô của bản đồ thay đổi.
+     *
+     * @param event Sự kiện nhận được.
+     */
+    @Override
+    public void update(Event event) {
+        if (event instanceof TileChangedEvent) {
+            dirty = true;
+        }
+    }
+}
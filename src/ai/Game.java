@@ -3,23 +3,40 @@
 package ai;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Lớp đại diện cho trò chơi Bomberman.
  */
 public class Game implements Cloneable, Subject {
+    // Độ sâu tối đa và thời gian suy nghĩ tối đa (ms) mỗi lượt của AIPlayer
+    private static final int AI_MAX_DEPTH = 9;
+    private static final long AI_TIME_BUDGET_MILLIS = 200;
+    // Số lượt trước khi bom nổ
+    private static final int BOMB_COUNTDOWN = 30;
+    // Số lần gọi updateGame mỗi vòng (một lần sau lượt người chơi, một lần sau lượt AI)
+    public static final int UPDATES_PER_ROUND = 2;
+
     private Player player;
     private AIPlayer aiPlayer;
     private GameMap gameMap;
     private List<Bomb> bombs;
+    private BlastMap blastMap; // Vùng nổ của các bom chưa nổ, cập nhật tăng dần
+    private FlowField playerFlowField; // Tạo khi cần, khoảng cách tới người chơi dùng chung cho các Balloon đuổi theo
+    private DistanceTable distanceTable; // Khoảng cách đường đi giữa mọi cặp ô, cập nhật khi tường bị phá
+    private OccupancyGrid occupancy; // Thực thể và bom theo ô, tra cứu O(1)
+    private EscapeSolver escapeSolver;  // Tạo khi cần, dùng lại cho mọi lần tìm đường thoát
+    private SpaceTimePathfinding spaceTimePathfinding; // Tạo khi cần, tìm đường theo lượt nổ chính xác
     private List<Balloon> balloons;
     private boolean gameOver;
     private boolean gameWon;
-    private Random rand;
+    private long seed;             // Seed của trò chơi, cùng seed cho cùng diễn biến
+    private SplittableRandom rand; // Luồng số ngẫu nhiên duy nhất của trò chơi
     private int level;
     private boolean isRunning;
     private boolean isPlayerTurn; // Biến quản lý lượt chơi
+    private long tickCount;       // Số lần updateGame() đã chạy
+    private TickProfiler profiler = new TickProfiler(); // Độ trễ từng giai đoạn, null ở các bản sao dùng để tìm kiếm
     boolean isAiTurn = false;     // Ban đầu AI chưa đến lượt
 
     // Danh sách các Observer
@@ -29,28 +46,49 @@ public class Game implements Cloneable, Subject {
      * Constructor khởi tạo trò chơi với bản đồ, người chơi, AIPlayer và các Balloon.
      */
     public Game() {
-        gameMap = new GameMap(19, 19);
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor khởi tạo trò chơi với seed cho trước: bản đồ, vật phẩm, Balloon, vật phẩm rơi ra khi phá tường
+     * và các Balloon di chuyển ngẫu nhiên đều lấy số từ cùng một luồng nên có thể tái lập chính xác.
+     *
+     * @param seed Seed của bộ sinh số ngẫu nhiên.
+     */
+    public Game(long seed) {
+        this.seed = seed;
+        rand = new SplittableRandom(seed);
+        gameMap = new GameMap(19, 19, rand);
         player = new Player(10, 10);
+        occupancy = new OccupancyGrid(gameMap.getWidth(), gameMap.getHeight());
+        occupancy.add(player);
         bombs = new ArrayList<>();
+        blastMap = new BlastMap(gameMap);
+        gameMap.attach(blastMap);
+        distanceTable = new DistanceTable(gameMap);
+        gameMap.attach(distanceTable);
         isRunning = true; // Gán giá trị cho biến thành viên
         balloons = new ArrayList<>();
         gameOver = false;
         gameWon = false;
-        rand = new Random();
         level = 1;
         isPlayerTurn = true; // Ban đầu là lượt người chơi
         initializeBalloons(3);
         initializeAIPlayer();
-        System.out.println("Người chơi được khởi tạo tại (" + player.getX() + ", " + player.getY() + ")");
+        if (Log.INFO_ENABLED) {
+            Log.info("Người chơi được khởi tạo tại ({}, {})", player.getX(), player.getY());
+        }
     }
 
     /**
      * Khởi tạo AIPlayer với chiến lược Minimax.
      */
     private void initializeAIPlayer() {
-        // Sử dụng MinimaxStrategy với độ sâu 7, là Maximizing Player
-        MovementStrategy aiStrategy = new MinimaxStrategy(7, true);
+        // Sử dụng MinimaxStrategy với Iterative Deepening tới độ sâu tối đa, giới hạn thời gian mỗi lượt
+        MinimaxStrategy aiStrategy = new MinimaxStrategy(AI_MAX_DEPTH, true, AI_TIME_BUDGET_MILLIS);
+        aiStrategy.setSeed(rand.nextLong()); // Chọn giữa các hành động bằng điểm theo seed của trò chơi
         aiPlayer = new AIPlayer(5, 5, aiStrategy, this);
+        occupancy.add(aiPlayer);
     }
 
     /**
@@ -62,6 +100,53 @@ public class Game implements Cloneable, Subject {
         return gameOver;
     }
 
+    /**
+     * Lấy số lượt cập nhật trò chơi (updateGame) đã chạy.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Lấy bộ đo độ trễ của trò chơi, hoặc null nếu là bản sao dùng để tìm kiếm.
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Đặt bộ đo độ trễ (ví dụ dùng chung cho nhiều ván), null để tắt.
+     */
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Ghi thời gian của một lần gọi chiến lược di chuyển.
+     *
+     * @param strategy Chiến lược vừa được gọi.
+     * @param nanos    Thời gian (ns).
+     */
+    public void recordStrategyLatency(MovementStrategy strategy, long nanos) {
+        if (profiler != null) {
+            profiler.recordStrategy(strategy, nanos);
+        }
+    }
+
+    /**
+     * Lấy seed của trò chơi.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Lấy bộ sinh số ngẫu nhiên của trò chơi (dùng cho vật phẩm rơi ra khi bom phá tường).
+     */
+    public SplittableRandom getRandom() {
+        return rand;
+    }
+
     /**
      * Kiểm tra xem người chơi có thắng không.
      *
@@ -121,7 +206,7 @@ public class Game implements Cloneable, Subject {
                 MovementStrategy strategy;
                 switch (placed % 3) {
                     case 0:
-                        strategy = new RandomMovementStrategy();
+                        strategy = new RandomMovementStrategy(rand.split());
                         break;
                     case 1:
                         strategy = new ChasePlayerStrategy(gameMap);
@@ -136,14 +221,17 @@ public class Game implements Cloneable, Subject {
                         strategy = new PatrolStrategy(patrolPath);
                         break;
                     default:
-                        strategy = new RandomMovementStrategy();
+                        strategy = new RandomMovementStrategy(rand.split());
                 }
                 Balloon balloon = new Balloon(x, y, strategy);
                 balloons.add(balloon);
+                occupancy.add(balloon);
                 placed++;
             }
         }
-        System.out.println(count + " Balloon đã được khởi tạo.");
+        if (Log.INFO_ENABLED) {
+            Log.info("{} Balloon đã được khởi tạo.", count);
+        }
     }
 
     /**
@@ -153,16 +241,16 @@ public class Game implements Cloneable, Subject {
      */
     public void placeBomb(Entity entity) {
         // Kiểm tra xem đã có bom tại vị trí này chưa
-        for (Bomb bomb : bombs) {
-            if (bomb.getX() == entity.getX() && bomb.getY() == entity.getY()) {
-                return; // Đã có bom tại vị trí này
-            }
+        if (occupancy.hasBombAt(entity.getX(), entity.getY())) {
+            return; // Đã có bom tại vị trí này
         }
         if (entity.placeBomb()) {
-            int countdown = 30; // Đặt countdown là 30 để bom nổ sau 3 giây (tương ứng với 30 lượt)
+            int countdown = BOMB_COUNTDOWN; // Đặt countdown là 30 để bom nổ sau 3 giây (tương ứng với 30 lượt)
             Bomb bomb = new Bomb(entity.getX(), entity.getY(), countdown, entity, entity.getExplosionRange());
             addBomb(bomb);
-            System.out.println("Bom được đặt tại (" + bomb.getX() + ", " + bomb.getY() + ")");
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Bom được đặt tại ({}, {})", bomb.getX(), bomb.getY());
+            }
         }
     }
 
@@ -214,6 +302,53 @@ public class Game implements Cloneable, Subject {
         return bombs;
     }
 
+    /**
+     * Lấy bản đồ vùng nổ của các bom chưa nổ
+     */
+    public BlastMap getBlastMap() {
+        return blastMap;
+    }
+
+    /**
+     * Lấy trường khoảng cách tới vị trí hiện tại của người chơi (chỉ tính lại khi người chơi
+     * di chuyển hoặc bản đồ thay đổi)
+     */
+    public FlowField getPlayerFlowField() {
+        if (playerFlowField == null) {
+            playerFlowField = new FlowField(gameMap);
+            gameMap.attach(playerFlowField);
+        }
+        playerFlowField.setSource(player.getX(), player.getY());
+        return playerFlowField;
+    }
+
+    /**
+     * Lấy bảng khoảng cách đường đi giữa mọi cặp ô của màn chơi hiện tại
+     */
+    public DistanceTable getDistanceTable() {
+        return distanceTable;
+    }
+
+    /**
+     * Lấy bộ tìm đường thoát khỏi vùng nổ của trò chơi
+     */
+    public EscapeSolver getEscapeSolver() {
+        if (escapeSolver == null) {
+            escapeSolver = new EscapeSolver(gameMap.getWidth(), gameMap.getHeight());
+        }
+        return escapeSolver;
+    }
+
+    /**
+     * Lấy bộ tìm đường theo không gian - thời gian (tránh ô đúng vào lượt nó bị nổ)
+     */
+    public SpaceTimePathfinding getSpaceTimePathfinding() {
+        if (spaceTimePathfinding == null) {
+            spaceTimePathfinding = new SpaceTimePathfinding(gameMap.getWidth(), gameMap.getHeight());
+        }
+        return spaceTimePathfinding;
+    }
+
     /**
      * Lấy danh sách Balloon hiện có
      */
@@ -252,6 +387,7 @@ public class Game implements Cloneable, Subject {
             // Cập nhật vị trí
             entity.setX(newX);
             entity.setY(newY);
+            occupancy.sync(entity);
 
             // Lấy item tại vị trí mới
             Item item = getItemAt(newX, newY);
@@ -261,21 +397,22 @@ public class Game implements Cloneable, Subject {
                     Player player = (Player) entity;
                     applyItemEffect(item, player);
                     gameMap.removeItem(item);
-                    System.out.println("Người chơi nhặt vật phẩm: " + item.getType());
+                    Log.info("Người chơi nhặt vật phẩm: {}", item.getType());
                 }
                 // Nếu là AIPlayer, dùng applyItemEffectForAI (cần bạn tự định nghĩa)
                 else if (entity instanceof AIPlayer) {
                     AIPlayer ai = (AIPlayer) entity;
                     applyItemEffectForAI(item, ai);  // <-- Hàm bạn tự viết
                     gameMap.removeItem(item);
-                    System.out.println("AIPlayer nhặt vật phẩm: " + item.getType());
+                    Log.info("AIPlayer nhặt vật phẩm: {}", item.getType());
                 }
                 // Có thể mở rộng cho Balloon, hoặc Entity khác nếu muốn
             }
         } else {
             // Không di chuyển được
-            System.out.println(entity.getClass().getSimpleName()
-                    + " không thể di chuyển tới (" + newX + ", " + newY + ").");
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("{} không thể di chuyển tới ({}, {}).", entity.getClass().getSimpleName(), newX, newY);
+            }
         }
     }
 
@@ -288,21 +425,8 @@ public class Game implements Cloneable, Subject {
         if (gameMap.getTile(x, y) != ' ') {
             return false;
         }
-        // Kiểm tra Balloon
-        for (Balloon balloon : balloons) {
-            if (balloon.isAlive() && balloon != entity &&
-                    balloon.getX() == x && balloon.getY() == y) {
-                return false;
-            }
-        }
-        // Kiểm tra AIPlayer
-        if (aiPlayer.isAlive() && aiPlayer != entity &&
-                aiPlayer.getX() == x && aiPlayer.getY() == y) {
-            return false;
-        }
-        // Kiểm tra Player
-        if (player.isAlive() && player != entity &&
-                player.getX() == x && player.getY() == y) {
+        // Kiểm tra Balloon, AIPlayer và Player đang đứng ở ô đích (tra chỉ mục chiếm chỗ)
+        if (occupancy.isOccupied(x, y, entity)) {
             return false;
         }
         return true;
@@ -325,6 +449,10 @@ public class Game implements Cloneable, Subject {
         for (Balloon balloon : balloons) {
             bomb.attach(balloon);
         }
+        // Bản đồ vùng nổ được đăng ký sau cùng để xóa bom sau khi các thực thể đã xử lý vụ nổ
+        bomb.attach(blastMap);
+        blastMap.addBomb(bomb);
+        occupancy.addBomb(bomb.getX(), bomb.getY());
     }
 
     /**
@@ -335,12 +463,7 @@ public class Game implements Cloneable, Subject {
      * @return Vật phẩm tại vị trí đó hoặc null nếu không có.
      */
     private Item getItemAt(int x, int y) {
-        for (Item item : gameMap.getItems()) {
-            if (item.getX() == x && item.getY() == y) {
-                return item;
-            }
-        }
-        return null;
+        return gameMap.getItemAt(x, y);
     }
 
     /**
@@ -361,11 +484,11 @@ public class Game implements Cloneable, Subject {
         switch (item.getType()) {
             case SPEED:
                 ai.increaseSpeed();
-                System.out.println("AIPlayer tăng speed!");
+                Log.info("AIPlayer tăng speed!");
                 break;
             case EXPLOSION_RANGE:
                 ai.increaseExplosionRange();
-                System.out.println("AIPlayer tăng explosion range!");
+                Log.info("AIPlayer tăng explosion range!");
                 break;
         }
     }
@@ -380,10 +503,28 @@ public class Game implements Cloneable, Subject {
         try {
             Game clonedGame = (Game) super.clone();
             clonedGame.gameMap = this.gameMap.clone();
+            // Bản sao dùng luồng số riêng suy ra từ seed và lượt hiện tại, không làm lệch luồng số của trò chơi gốc
+            clonedGame.rand = new SplittableRandom(seed ^ (tickCount + 1) * 0x9E3779B97F4A7C15L);
+            clonedGame.gameMap.setRandom(clonedGame.rand);
             clonedGame.bombs = new ArrayList<>();
             for (Bomb bomb : this.bombs) {
                 clonedGame.bombs.add(bomb.clone());
             }
+            // Bản sao có bản đồ vùng nổ riêng theo bản đồ và bom đã clone
+            clonedGame.blastMap = new BlastMap(clonedGame.gameMap);
+            clonedGame.gameMap.attach(clonedGame.blastMap);
+            clonedGame.blastMap.rebuild(clonedGame.bombs);
+            for (Bomb bomb : clonedGame.bombs) {
+                bomb.attach(clonedGame.blastMap);
+            }
+            clonedGame.playerFlowField = null; // Tạo khi cần
+            clonedGame.occupancy = new OccupancyGrid(this.occupancy);
+            // Dùng chung mảng khoảng cách với trò chơi gốc, chỉ sao chép khi một bên có tường bị phá
+            clonedGame.distanceTable = new DistanceTable(this.distanceTable, clonedGame.gameMap);
+            clonedGame.gameMap.attach(clonedGame.distanceTable);
+            clonedGame.escapeSolver = null;
+            clonedGame.spaceTimePathfinding = null;
+            clonedGame.profiler = null; // Các lượt mô phỏng không được tính vào độ trễ thật
             // Clone các thuộc tính khác nếu cần
             return clonedGame;
         } catch (CloneNotSupportedException e) {
@@ -417,6 +558,7 @@ public class Game implements Cloneable, Subject {
         if (aiPlayer != null) {
             aiPlayer.setX(x);
             aiPlayer.setY(y);
+            occupancy.sync(aiPlayer);
         }
     }
 
@@ -428,6 +570,7 @@ public class Game implements Cloneable, Subject {
     public void setAIPlayerX(int x) {
         if (aiPlayer != null) {
             aiPlayer.setX(x);
+            occupancy.sync(aiPlayer);
         }
     }
 
@@ -439,6 +582,7 @@ public class Game implements Cloneable, Subject {
     public void setAIPlayerY(int y) {
         if (aiPlayer != null) {
             aiPlayer.setY(y);
+            occupancy.sync(aiPlayer);
         }
     }
 
@@ -450,6 +594,7 @@ public class Game implements Cloneable, Subject {
     public void setPlayerX(int x) {
         if (player != null) {
             player.setX(x);
+            occupancy.sync(player);
         }
     }
 
@@ -461,6 +606,7 @@ public class Game implements Cloneable, Subject {
     public void setPlayerY(int y) {
         if (player != null) {
             player.setY(y);
+            occupancy.sync(player);
         }
     }
 
@@ -493,6 +639,14 @@ public class Game implements Cloneable, Subject {
      */
     public void setBombs(List<Bomb> bombs) {
         this.bombs = new ArrayList<>(bombs);
+        blastMap.rebuild(this.bombs);
+        occupancy.clearBombs();
+        for (Bomb bomb : this.bombs) {
+            bomb.attach(blastMap);
+            if (!bomb.isExplosionFinished()) {
+                occupancy.addBomb(bomb.getX(), bomb.getY());
+            }
+        }
     }
 
     /**
@@ -502,6 +656,10 @@ public class Game implements Cloneable, Subject {
      */
     public void setBalloonCount(int count) {
         if (balloons != null) {
+            for (Balloon balloon : balloons) {
+                occupancy.remove(balloon);
+                balloon.release(this);
+            }
             balloons.clear();
             initializeBalloons(count);
         }
@@ -526,6 +684,9 @@ public class Game implements Cloneable, Subject {
         // 1) Đang là lượt Player
         // 2) Player còn sống
         if (isPlayerTurn && player.isAlive()) {
+            long start = System.nanoTime();
+            TurnJfrEvent event = new TurnJfrEvent();
+            event.begin();
 
             // 1) Thực hiện hành động (MOVE_UP, PLACE_BOMB, v.v.)
             executeAction(player, action);
@@ -539,6 +700,15 @@ public class Game implements Cloneable, Subject {
 
             // 4) Nếu bạn dùng Observer Pattern để vẽ UI, có thể notifyObservers
             notifyObservers(new PlayerMovedEvent(player.getX(), player.getY()));
+            if (profiler != null) {
+                profiler.record(TickProfiler.Phase.PLAYER_MOVE, System.nanoTime() - start);
+            }
+            if (event.shouldCommit()) {
+                event.side = "PLAYER";
+                event.action = action.getActionType().name();
+                event.tick = tickCount;
+                event.commit();
+            }
 
             // 5) Mời AI di chuyển
             aiMove();
@@ -585,10 +755,14 @@ public class Game implements Cloneable, Subject {
         // 1) Đang là lượt AI
         // 2) AIPlayer còn sống
         if (isAiTurn && aiPlayer.isAlive()) {
+            long start = System.nanoTime();
+            TurnJfrEvent event = new TurnJfrEvent();
+            event.begin();
 
             // 1) Gọi update() cho AI,
             //    trong đó AI sẽ chạy Minimax/ESCAPE/... => di chuyển
             aiPlayer.update(this);
+            occupancy.sync(aiPlayer);
 
             // 2) Cập nhật game
             updateGame();
@@ -599,6 +773,14 @@ public class Game implements Cloneable, Subject {
 
             // 4) Thông báo
             notifyObservers(new AIPlayerMovedEvent(aiPlayer.getX(), aiPlayer.getY()));
+            if (profiler != null) {
+                profiler.record(TickProfiler.Phase.AI_MOVE, System.nanoTime() - start);
+            }
+            if (event.shouldCommit()) {
+                event.side = "AI"; // Hành động của AI có trong sự kiện ai.AiDecision
+                event.tick = tickCount;
+                event.commit();
+            }
         }
     }
 
@@ -640,6 +822,10 @@ public class Game implements Cloneable, Subject {
         }
         // Loại bỏ các bom đã hoàn thành hiệu ứng nổ
         bombs.removeAll(explodedBombs);
+        for (Bomb bomb : explodedBombs) {
+            occupancy.removeBomb(bomb.getX(), bomb.getY());
+        }
+        blastMap.advance();
     }
 
     /**
@@ -649,6 +835,7 @@ public class Game implements Cloneable, Subject {
         // Cập nhật Balloon
         for (Balloon balloon : balloons) {
             balloon.update(this);
+            occupancy.sync(balloon);
         }
         // Loại bỏ hoặc comment phần cập nhật AI
         // if (aiPlayer.isAlive()) {
@@ -662,19 +849,29 @@ public class Game implements Cloneable, Subject {
      * Cập nhật trạng thái tổng thể của trò chơi, bao gồm các bom và thực thể.
      */
     public void updateGame() {
+        tickCount++;
+        long start = System.nanoTime();
         // 1) updateBombs
         updateBombs();
+        long bombsDone = System.nanoTime();
 
         // 2) updateEntities (Balloon, Player, AI, v.v.)
         updateEntities();
+        long entitiesDone = System.nanoTime();
 
         // 3) kiểm tra isOver
-        if (isOver()) {
+        boolean over = isOver();
+        if (profiler != null) {
+            profiler.record(TickProfiler.Phase.UPDATE_BOMBS, bombsDone - start);
+            profiler.record(TickProfiler.Phase.UPDATE_ENTITIES, entitiesDone - bombsDone);
+            profiler.record(TickProfiler.Phase.IS_OVER, System.nanoTime() - entitiesDone);
+        }
+        if (over) {
             gameOver = true;
             if (gameWon) {
-                System.out.println("Bạn đã thắng!");
+                Log.info("Bạn đã thắng!");
             } else {
-                System.out.println("Game Over!");
+                Log.info("Game Over!");
             }
         }
     }
@@ -691,45 +888,23 @@ public class Game implements Cloneable, Subject {
      * @return True nếu có đường thoát an toàn, false nếu không.
      */
     public boolean canEscape(Entity entity, int bombX, int bombY) {
-        System.out.println("Kiểm tra khả năng thoát khỏi bom tại (" + bombX + ", " + bombY + ") cho " + entity.getClass().getSimpleName());
-
-        // Clone trò chơi để mô phỏng sau khi đặt bom
-        Game clonedGame = this.clone();
-        if (clonedGame == null) {
-            System.out.println("Clone Game thất bại.");
-            return false;
-        }
-
-        // Đặt bom trong trò chơi clone
-        clonedGame.placeBomb(entity);
-        System.out.println(entity.getClass().getSimpleName() + " đã đặt bom tại (" + bombX + ", " + bombY + ") trong clone game.");
-
-        // Sử dụng Pathfinding để tìm đường thoát
-        Pathfinding pathfinding = new Pathfinding(clonedGame.getGameMap());
-
-        // Lấy danh sách các vị trí an toàn sau khi đặt bom
-        List<int[]> safePositions = clonedGame.getGameMap().findSafePositions(clonedGame.getAiPlayer(), clonedGame);
-        System.out.println("Các vị trí an toàn có thể di chuyển tới:");
-        for (int[] pos : safePositions) {
-            System.out.println("- (" + pos[0] + ", " + pos[1] + ")");
-        }
-
-        // Kiểm tra xem có đường đi nào tới các vị trí an toàn không
-        for (int[] pos : safePositions) {
-            List<int[]> path = pathfinding.findSafePath(
-                    clonedGame.getAiPlayer().getX(),
-                    clonedGame.getAiPlayer().getY(),
-                    pos[0],
-                    pos[1],
-                    clonedGame
-            );
-            if (!path.isEmpty()) {
-                System.out.println("Đã tìm thấy đường thoát tới (" + pos[0] + ", " + pos[1] + ")");
-                return true; // Tìm được một đường thoát an toàn
+        if (Log.DEBUG_ENABLED) {
+            Log.debug("Kiểm tra khả năng thoát khỏi bom tại ({}, {}) cho {}", bombX, bombY,
+                    entity.getClass().getSimpleName());
+        }
+
+        // Một lần BFS có tính thời gian nổ, với quả bom giả định tại (bombX, bombY).
+        // Không cần clone trò chơi hay đặt bom thật nên trạng thái của thực thể không bị thay đổi.
+        EscapeSolver solver = getEscapeSolver();
+        if (solver.solve(this, entity.getX(), entity.getY(), bombX, bombY, entity.getExplosionRange(), BOMB_COUNTDOWN,
+                entity.getTicksPerStep())) {
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Đã tìm thấy đường thoát tới ({}, {})", solver.getTargetX(), solver.getTargetY());
             }
+            return true; // Tìm được một đường thoát an toàn
         }
 
-        System.out.println("Không tìm thấy đường thoát an toàn.");
+        Log.debug("Không tìm thấy đường thoát an toàn.");
         return false; // Không tìm được đường thoát an toàn
     }
 
@@ -2,21 +2,36 @@
 
 package ai;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 /**
  * Lớp đại diện cho bản đồ trò chơi.
  */
-public class GameMap implements Cloneable {
+public class GameMap implements Cloneable, Subject {
     private char[][] map;
     private int width;
     private int height;
     private List<Item> items;
+    // Vật phẩm theo ô (chỉ số x * height + y), cập nhật cùng danh sách items để tra cứu O(1)
+    private Item[] itemGrid;
+    // Các Observer nhận TileChangedEvent khi một ô thay đổi
+    private List<Observer> observers = new ArrayList<>();
+    // Bộ sinh số ngẫu nhiên của trò chơi (dùng chung luồng số với Game để kết quả có thể tái lập theo seed)
+    private SplittableRandom random;
     public GameMap(int width, int height) {
+        this(width, height, new SplittableRandom());
+    }
+    /**
+     * Tạo bản đồ với bộ sinh số ngẫu nhiên cho trước, cùng seed cho cùng bản đồ và vật phẩm.
+     */
+    public GameMap(int width, int height, SplittableRandom random) {
+        this.random = random;
         this.width = width;
         this.height = height;
         map = new char[width][height];
         items = new ArrayList<>();
+        itemGrid = new Item[width * height];
         initializeMap();
         placeRandomItems(5); // Đặt 5 vật phẩm ngẫu nhiên
     }
@@ -60,11 +75,10 @@ public class GameMap implements Cloneable {
      * Đặt các tường phá hủy ngẫu nhiên trên bản đồ
      */
     private void placeRandomDestructibleWalls(int count) {
-        Random rand = new Random();
         int placed = 0;
         while (placed < count) {
-            int x = rand.nextInt(width);
-            int y = rand.nextInt(height);
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
             if (map[x][y] == ' ' && !isWithinStartArea(x, y)) {
                 map[x][y] = 'D';
                 placed++;
@@ -75,14 +89,13 @@ public class GameMap implements Cloneable {
      * Đặt các vật phẩm ngẫu nhiên trên bản đồ
      */
     private void placeRandomItems(int count) {
-        Random rand = new Random();
         int placed = 0;
         while (placed < count) {
-            int x = rand.nextInt(width);
-            int y = rand.nextInt(height);
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
             if (map[x][y] == ' ' && !isWithinStartArea(x, y) && !isItemAt(x, y)) {
-                Item.ItemType type = rand.nextBoolean() ? Item.ItemType.SPEED : Item.ItemType.EXPLOSION_RANGE;
-                items.add(new Item(x, y, type));
+                Item.ItemType type = random.nextBoolean() ? Item.ItemType.SPEED : Item.ItemType.EXPLOSION_RANGE;
+                addItem(new Item(x, y, type));
                 placed++;
             }
         }
@@ -91,12 +104,16 @@ public class GameMap implements Cloneable {
      * Kiểm tra xem có vật phẩm tại vị trí (x, y) không
      */
     public boolean isItemAt(int x, int y) {
-        for (Item item : items) {
-            if (item.getX() == x && item.getY() == y) {
-                return true;
-            }
+        return getItemAt(x, y) != null;
+    }
+    /**
+     * Lấy vật phẩm tại vị trí (x, y), hoặc null nếu không có
+     */
+    public Item getItemAt(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return null;
         }
-        return false;
+        return itemGrid[x * height + y];
     }
     /**
      * Lấy danh sách vật phẩm
@@ -108,7 +125,13 @@ public class GameMap implements Cloneable {
      * Xóa vật phẩm khỏi bản đồ
      */
     public void removeItem(Item item) {
-        items.remove(item);
+        if (items.remove(item)) {
+            int x = item.getX();
+            int y = item.getY();
+            if (x >= 0 && x < width && y >= 0 && y < height && itemGrid[x * height + y] == item) {
+                itemGrid[x * height + y] = null;
+            }
+        }
     }
     /**
      * Trả về ký tự tại vị trí (x, y)
@@ -124,7 +147,27 @@ public class GameMap implements Cloneable {
      */
     public void setTile(int x, int y, char tile) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            char oldTile = map[x][y];
             map[x][y] = tile;
+            if (oldTile != tile) {
+                notifyObservers(new TileChangedEvent(x, y, oldTile, tile));
+            }
+        }
+    }
+    @Override
+    public void attach(Observer observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+    @Override
+    public void detach(Observer observer) {
+        observers.remove(observer);
+    }
+    @Override
+    public void notifyObservers(Event event) {
+        for (Observer observer : observers) {
+            observer.update(event);
         }
     }
     /**
@@ -142,18 +185,25 @@ public class GameMap implements Cloneable {
     }
     public void addItem(Item item) {
         items.add(item);
+        int x = item.getX();
+        int y = item.getY();
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            itemGrid[x * height + y] = item;
+        }
     }
     @Override
     public GameMap clone() {
         try {
             GameMap clonedMap = (GameMap) super.clone();
+            clonedMap.observers = new ArrayList<>(); // Không clone các Observer
             clonedMap.map = new char[this.width][this.height];
             for (int i = 0; i < this.width; i++) {
                 System.arraycopy(this.map[i], 0, clonedMap.map[i], 0, this.height);
             }
             clonedMap.items = new ArrayList<>();
+            clonedMap.itemGrid = new Item[this.width * this.height];
             for (Item item : this.items) {
-                clonedMap.items.add(item.clone());
+                clonedMap.addItem(item.clone());
             }
             return clonedMap;
         } catch (CloneNotSupportedException e) {
@@ -161,6 +211,12 @@ public class GameMap implements Cloneable {
             return null;
         }
     }
+    /**
+     * Đặt bộ sinh số ngẫu nhiên (bản sao của Game dùng bộ sinh riêng để không làm lệch luồng số của trò chơi gốc).
+     */
+    void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
     public boolean isValidCoordinate(int x, int y) {
 // Kiểm tra nếu tọa độ nằm trong phạm vi hợp lệ của bản đồ và là ô trống
         return x >= 0 && x < width && y >= 0 && y < height && isWalkable(x, y);
@@ -168,37 +224,37 @@ public class GameMap implements Cloneable {
     public void setMap(int[][] gameMapData) {
 // Kiểm tra nếu dữ liệu bản đồ hợp lệ
         if (gameMapData == null || gameMapData.length != width || gameMapData[0].length != height) {
-            System.out.println("Dữ liệu bản đồ không hợp lệ.");
+            Log.warn("Dữ liệu bản đồ không hợp lệ.");
             return;
         }
-// Cập nhật bản đồ với dữ liệu từ gameMapData
+// Cập nhật bản đồ với dữ liệu từ gameMapData (qua setTile để các Observer nhận được thay đổi)
         for (int i = 0; i < width; i++) {
             for (int j = 0; j < height; j++) {
 // Chuyển đổi giá trị từ gameMapData sang ký tự tương ứng
                 switch (gameMapData[i][j]) {
                     case 0: // Ô trống
-                        map[i][j] = ' ';
+                        setTile(i, j, ' ');
                         break;
                     case 1: // Tường không thể phá hủy
-                        map[i][j] = '#';
+                        setTile(i, j, '#');
                         break;
                     case 2: // Tường có thể phá hủy
-                        map[i][j] = 'D';
+                        setTile(i, j, 'D');
                         break;
                     default:
-                        map[i][j] = ' '; // Mặc định là ô trống
+                        setTile(i, j, ' '); // Mặc định là ô trống
                 }
             }
         }
 // Sau khi cập nhật bản đồ, xóa các vật phẩm cũ và thêm lại các vật phẩm mới từ dữ liệu bản đồ
         items.clear(); // Xóa các vật phẩm cũ
+        Arrays.fill(itemGrid, null);
         for (int i = 0; i < width; i++) {
             for (int j = 0; j < height; j++) {
                 if (map[i][j] == ' ' && !isItemAt(i, j) && !isWithinStartArea(i, j)) {
 // Đặt vật phẩm ngẫu nhiên (chỉ ở ô trống)
-                    Random rand = new Random();
-                    Item.ItemType type = rand.nextBoolean() ? Item.ItemType.SPEED : Item.ItemType.EXPLOSION_RANGE;
-                    items.add(new Item(i, j, type));
+                    Item.ItemType type = random.nextBoolean() ? Item.ItemType.SPEED : Item.ItemType.EXPLOSION_RANGE;
+                    addItem(new Item(i, j, type));
                 }
             }
         }
@@ -234,17 +290,8 @@ public class GameMap implements Cloneable {
         for (int x = 0; x < map.length; x++) {
             for (int y = 0; y < map[0].length; y++) {
                 if (isWalkable(x, y)) {
-                    boolean isSafe = true;
                     // Kiểm tra xem vị trí này có nằm trong phạm vi nổ của bất kỳ bom nào không
-                    for (Bomb bomb : game.getBombs()) {
-                        if (!bomb.isExploded()) {
-                            int distance = Math.abs(bomb.getX() - x) + Math.abs(bomb.getY() - y);
-                            if (distance <= bomb.getExplosionRange()) {
-                                isSafe = false;
-                                break;
-                            }
-                        }
-                    }
+                    boolean isSafe = !game.getBlastMap().isInBlast(x, y);
                     // Kiểm tra xem có Balloon nào gần không (tùy thuộc vào logic của bạn)
                     if (isSafe) {
                         safePositions.add(new int[]{x, y});
@@ -0,0 +1,160 @@
+package ai;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chạy trò chơi không có giao diện: mỗi vòng lấy hành động của người chơi từ một PlayerInput (kịch bản hoặc bot)
+ * rồi gọi Game.playerMove(), trong đó AIPlayer đi ngay sau người chơi như khi chơi bằng GameFrame.
+ * Không lớp AWT/Swing nào được nạp nên có thể chạy trên máy chủ không có màn hình và đo tốc độ của riêng engine.
+ */
+public class HeadlessEngine {
+    private final Game game;
+    private final PlayerInput playerInput;
+    private long rounds;
+    private long ticks;
+    private long elapsedNanos;
+
+    /**
+     * Constructor tạo engine cho một ván chơi.
+     *
+     * @param game        Trò chơi cần chạy.
+     * @param playerInput Nguồn hành động của người chơi.
+     */
+    public HeadlessEngine(Game game, PlayerInput playerInput) {
+        this.game = game;
+        this.playerInput = playerInput;
+    }
+
+    /**
+     * Chạy tối đa maxRounds vòng (mỗi vòng gồm lượt người chơi và lượt AI) hoặc tới khi trò chơi kết thúc.
+     *
+     * @param maxRounds Số vòng tối đa.
+     */
+    public void run(long maxRounds) {
+        long startTicks = game.getTickCount();
+        long start = System.nanoTime();
+        long played = 0;
+        while (played < maxRounds && !game.isGameOver()) {
+            game.playerMove(playerInput.nextAction(game));
+            played++;
+        }
+        elapsedNanos += System.nanoTime() - start;
+        rounds += played;
+        ticks += game.getTickCount() - startTicks;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Lấy số lượt cập nhật trò chơi mỗi giây trong các lần chạy.
+     */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : ticks * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Tạo nguồn hành động của người chơi từ tên: "random", "escape" hoặc "script:UDLRBS".
+     *
+     * @param name Tên nguồn hành động.
+     * @param seed Seed của bot ngẫu nhiên.
+     * @return Nguồn hành động tương ứng.
+     */
+    public static PlayerInput createPlayerInput(String name, long seed) {
+        if (name.startsWith("script:")) {
+            return ScriptedPlayerInput.parse(name.substring("script:".length()));
+        }
+        switch (name) {
+            case "random":
+                return new StrategyPlayerInput(new RandomMovementStrategy(new SplittableRandom(seed)));
+            case "escape":
+                return new StrategyPlayerInput(new EscapeBombsStrategy(null));
+            default:
+                throw new IllegalArgumentException("Nguồn hành động không hợp lệ: " + name);
+        }
+    }
+
+    /**
+     * Tạo chiến lược cho AIPlayer từ tên: "minimax[:độ sâu]", "mcts[:số vòng lặp]" hoặc "random".
+     *
+     * @param name Tên chiến lược.
+     * @param seed Seed của chiến lược.
+     * @return Chiến lược tương ứng.
+     */
+    public static MovementStrategy createStrategy(String name, long seed) {
+        String[] parts = name.split(":");
+        switch (parts[0]) {
+            case "minimax":
+                MinimaxStrategy minimax = new MinimaxStrategy(parts.length > 1 ? Integer.parseInt(parts[1]) : 4, true);
+                minimax.setSeed(seed);
+                return minimax;
+            case "mcts":
+                MctsStrategy mcts = new MctsStrategy(parts.length > 1 ? Integer.parseInt(parts[1]) : 500);
+                mcts.setSeed(seed);
+                return mcts;
+            case "random":
+                return new RandomMovementStrategy(new SplittableRandom(seed));
+            default:
+                throw new IllegalArgumentException("Chiến lược không hợp lệ: " + name);
+        }
+    }
+
+    /**
+     * Chạy các ván liên tiếp và in số lượt mỗi giây.
+     * Tham số: [số ván] [số vòng tối đa mỗi ván] [người chơi: random|escape|script:...] [AI: minimax[:d]|mcts[:n]|random]
+     * [seed]. Ván thứ i dùng seed + i nên cùng tham số cho cùng diễn biến.
+     */
+    public static void main(String[] args) {
+        // Chỉ in cảnh báo trước khi lớp Log được nạp, trừ khi đã chỉ định mức log
+        if (System.getProperty("ai.log.level") == null) {
+            System.setProperty("ai.log.level", "WARN");
+        }
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long maxRounds = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        String playerName = args.length > 2 ? args[2] : "random";
+        String aiName = args.length > 3 ? args[3] : "minimax:4";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : new SplittableRandom().nextLong();
+
+        long totalTicks = 0;
+        long totalNanos = 0;
+        int playerWins = 0;
+        TickProfiler profiler = new TickProfiler(); // Dùng chung cho mọi ván
+        profiler.startSnapshotsFromProperties();
+        try {
+            for (int i = 0; i < games; i++) {
+                Game game = new Game(seed + i);
+                game.setProfiler(profiler);
+                game.getAiPlayer().setMovementStrategy(createStrategy(aiName, seed + i));
+                HeadlessEngine engine = new HeadlessEngine(game, createPlayerInput(playerName, seed + i));
+                engine.run(maxRounds);
+                totalTicks += engine.getTicks();
+                totalNanos += engine.getElapsedNanos();
+                if (game.isGameWon()) {
+                    playerWins++;
+                }
+                System.out.printf("Ván %d: %d vòng, %d lượt, %.0f lượt/giây, %s%n", i + 1, engine.getRounds(),
+                        engine.getTicks(), engine.getTicksPerSecond(),
+                        !game.isGameOver() ? "chưa kết thúc" : game.isGameWon() ? "người chơi thắng" : "AI thắng");
+            }
+        } finally {
+            profiler.stopSnapshots();
+        }
+        System.out.println("Seed: " + seed);
+        System.out.print(profiler.report());
+        System.out.printf("Tổng cộng: %d ván, %d lượt, %.0f lượt/giây, người chơi thắng %d ván%n",
+                games, totalTicks, totalNanos == 0 ? 0.0 : totalTicks * 1e9 / totalNanos, playerWins);
+    }
+}
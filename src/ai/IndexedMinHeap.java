@@ -0,0 +1,156 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Hàng đợi ưu tiên nhị phân trên các chỉ số nguyên [0, capacity) với thao tác decrease-key.
+ * Vị trí của mỗi phần tử trong heap được lưu lại nên contains() và cập nhật độ ưu tiên là O(1) và O(log n),
+ * và mọi mảng được cấp phát một lần nên việc dùng lại qua nhiều lần tìm kiếm không tạo rác.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;        // heap[i] = phần tử ở vị trí i
+    private final int[] position;    // position[phần tử] = vị trí trong heap, -1 nếu không có
+    private final double[] priority; // priority[phần tử]
+    private int size;
+
+    /**
+     * Constructor tạo heap rỗng.
+     *
+     * @param capacity Số phần tử tối đa (các chỉ số hợp lệ là 0..capacity-1).
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Xóa mọi phần tử, chỉ tốn thời gian theo số phần tử đang có.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    /**
+     * Thêm phần tử hoặc cập nhật độ ưu tiên nếu phần tử đã có trong heap (tăng hoặc giảm đều được).
+     *
+     * @param item        Phần tử.
+     * @param newPriority Độ ưu tiên mới (nhỏ hơn được lấy ra trước).
+     */
+    public void push(int item, double newPriority) {
+        int pos = position[item];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = item;
+            position[item] = pos;
+            priority[item] = newPriority;
+            siftUp(pos);
+        } else if (newPriority < priority[item]) {
+            priority[item] = newPriority;
+            siftUp(pos);
+        } else {
+            priority[item] = newPriority;
+            siftDown(pos);
+        }
+    }
+
+    /**
+     * Lấy ra phần tử có độ ưu tiên nhỏ nhất.
+     *
+     * @return Phần tử có độ ưu tiên nhỏ nhất (heap không được rỗng).
+     */
+    public int poll() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public double peekPriority() {
+        return priority[heap[0]];
+    }
+
+    /**
+     * Xóa một phần tử khỏi heap nếu có.
+     *
+     * @param item Phần tử cần xóa.
+     */
+    public void remove(int item) {
+        int pos = position[item];
+        if (pos >= 0) {
+            removeAt(pos);
+        }
+    }
+
+    private void removeAt(int pos) {
+        int item = heap[pos];
+        position[item] = -1;
+        size--;
+        if (pos == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[pos] = last;
+        position[last] = pos;
+        siftDown(pos);
+        siftUp(position[last]);
+    }
+
+    private void siftUp(int pos) {
+        int item = heap[pos];
+        double p = priority[item];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentItem = heap[parent];
+            if (priority[parentItem] <= p) {
+                break;
+            }
+            heap[pos] = parentItem;
+            position[parentItem] = pos;
+            pos = parent;
+        }
+        heap[pos] = item;
+        position[item] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int item = heap[pos];
+        double p = priority[item];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && priority[heap[right]] < priority[heap[child]]) {
+                child = right;
+            }
+            int childItem = heap[child];
+            if (p <= priority[childItem]) {
+                break;
+            }
+            heap[pos] = childItem;
+            position[childItem] = pos;
+            pos = child;
+        }
+        heap[pos] = item;
+        position[item] = pos;
+    }
+}
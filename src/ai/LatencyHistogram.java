@@ -0,0 +1,118 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Biểu đồ phân bố độ trễ (ns) kiểu HdrHistogram: các giá trị nhỏ hơn 128 có ô riêng, từ 128 trở lên mỗi khoảng
+ * lũy thừa của 2 được chia thành 64 ô bằng nhau, nên sai số tương đối của phân vị không quá 1/64 (khoảng 1.6%)
+ * trên toàn dải giá trị với một mảng cố định vài nghìn ô.
+ *
+ * Ghi là một phép cộng nguyên tử không tranh chấp; có thể đọc phân vị từ luồng khác (ví dụ luồng ghi ảnh chụp)
+ * trong lúc luồng trò chơi vẫn ghi.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Ghi một giá trị độ trễ.
+     *
+     * @param nanos Độ trễ (ns), giá trị âm được coi là 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalNanos.get() / count;
+    }
+
+    /**
+     * Lấy giá trị tại phân vị cho trước (cận trên của ô chứa phân vị, không vượt quá giá trị lớn nhất đã ghi).
+     *
+     * @param percentile Phân vị từ 0 tới 100.
+     * @return Độ trễ (ns), 0 nếu chưa có giá trị nào.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= target) {
+                return Math.min(highestValueOf(bucket), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Xóa toàn bộ giá trị đã ghi.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * Mô tả ngắn gọn: số lần, p50, p99, p99.9 và max theo micro giây.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fµs p99=%.1fµs p99.9=%.1fµs max=%.1fµs", getCount(),
+                getValueAtPercentile(50) / 1e3, getValueAtPercentile(99) / 1e3,
+                getValueAtPercentile(99.9) / 1e3, getMaxNanos() / 1e3);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS; // >= 1
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;                      // 0..63
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        if (shift >= 62 - SUB_BUCKET_BITS) {
+            return Long.MAX_VALUE; // Các ô cuối cùng, cận trên vượt quá kiểu long
+        }
+        long sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
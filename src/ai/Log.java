@@ -0,0 +1,166 @@
+package ai;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ghi log bất đồng bộ cho các đường chạy nóng (tìm đường, bom, Balloon, Minimax).
+ *
+ * Mức log được đọc một lần từ thuộc tính hệ thống "ai.log.level" (DEBUG, INFO, WARN, ERROR, OFF; mặc định INFO)
+ * vào các hằng static final, nên kiểm tra "if (Log.DEBUG_ENABLED)" được JIT gấp thành hằng và gần như miễn phí khi tắt.
+ * Nơi gọi chỉ đưa mẫu thông báo với "{}" và các tham số vào LogRingBuffer; việc ghép chuỗi và in ra System.out
+ * được làm trên một luồng daemon riêng. Khi hàng đợi đầy, bản ghi bị bỏ và được đếm thay vì chặn luồng trò chơi.
+ *
+ * Các tham số phải không đổi sau khi ghi log (số, chuỗi, enum) vì chúng được định dạng sau.
+ * Các lời gọi có tham số kiểu int nên được bọc trong kiểm tra mức log để tránh boxing khi log bị tắt.
+ */
+public final class Log {
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    public static final Level LEVEL = parseLevel(System.getProperty("ai.log.level", "INFO"));
+    public static final boolean DEBUG_ENABLED = LEVEL.compareTo(Level.DEBUG) <= 0;
+    public static final boolean INFO_ENABLED = LEVEL.compareTo(Level.INFO) <= 0;
+    public static final boolean WARN_ENABLED = LEVEL.compareTo(Level.WARN) <= 0;
+    public static final boolean ERROR_ENABLED = LEVEL.compareTo(Level.ERROR) <= 0;
+
+    private static final int CAPACITY = 1 << 14;
+    // Thời gian luồng ghi ngủ khi hàng đợi rỗng
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private static final LogRingBuffer BUFFER = new LogRingBuffer(CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    // Số bản ghi đã thật sự được in và flush ra System.out (chỉ luồng ghi cập nhật)
+    private static volatile long written;
+    private static final Thread WRITER;
+
+    static {
+        if (LEVEL != Level.OFF) {
+            WRITER = new Thread(Log::drainLoop, "ai-log-writer");
+            WRITER.setDaemon(true);
+            WRITER.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "ai-log-flush"));
+        } else {
+            WRITER = null;
+        }
+    }
+
+    /**
+     * Bản ghi log chưa định dạng.
+     */
+    static final class Record {
+        final Level level;
+        final String pattern;
+        final Object[] args;
+
+        Record(Level level, String pattern, Object[] args) {
+            this.level = level;
+            this.pattern = pattern;
+            this.args = args;
+        }
+    }
+
+    private Log() {
+    }
+
+    public static void debug(String pattern, Object... args) {
+        if (DEBUG_ENABLED) {
+            enqueue(Level.DEBUG, pattern, args);
+        }
+    }
+
+    public static void info(String pattern, Object... args) {
+        if (INFO_ENABLED) {
+            enqueue(Level.INFO, pattern, args);
+        }
+    }
+
+    public static void warn(String pattern, Object... args) {
+        if (WARN_ENABLED) {
+            enqueue(Level.WARN, pattern, args);
+        }
+    }
+
+    public static void error(String pattern, Object... args) {
+        if (ERROR_ENABLED) {
+            enqueue(Level.ERROR, pattern, args);
+        }
+    }
+
+    /**
+     * Lấy số bản ghi bị bỏ vì hàng đợi đầy.
+     */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    /**
+     * Chờ tới khi mọi bản ghi đã nhận được in ra.
+     */
+    public static void flush() {
+        if (WRITER == null) {
+            return;
+        }
+        long target = BUFFER.producedCount();
+        // Chờ theo số bản ghi đã in chứ không theo số đã lấy khỏi hàng đợi: lô cuối có thể chưa được in ra
+        while (written < target && WRITER.isAlive()) {
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(100_000L);
+        }
+        System.out.flush();
+    }
+
+    private static void enqueue(Level level, String pattern, Object[] args) {
+        if (!BUFFER.offer(new Record(level, pattern, args))) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    private static void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            Record record = BUFFER.poll();
+            if (record == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            // In theo lô: gom các bản ghi đang có rồi mới ghi ra một lần
+            PrintStream out = System.out;
+            do {
+                line.setLength(0);
+                if (record.level != Level.INFO) {
+                    line.append('[').append(record.level).append("] ");
+                }
+                format(line, record.pattern, record.args);
+                out.println(line);
+                record = BUFFER.poll();
+            } while (record != null);
+            out.flush();
+            written = BUFFER.consumedCount();
+        }
+    }
+
+    /**
+     * Thay lần lượt từng "{}" trong mẫu bằng tham số tương ứng.
+     */
+    static void format(StringBuilder out, String pattern, Object[] args) {
+        int argIndex = 0;
+        int start = 0;
+        int index;
+        while (argIndex < args.length && (index = pattern.indexOf("{}", start)) >= 0) {
+            out.append(pattern, start, index).append(args[argIndex++]);
+            start = index + 2;
+        }
+        out.append(pattern, start, pattern.length());
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
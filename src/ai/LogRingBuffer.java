@@ -0,0 +1,91 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hàng đợi vòng có giới hạn, không khóa, nhiều luồng ghi một luồng đọc (MPSC) cho các bản ghi log.
+ *
+ * Mỗi ô có một số thứ tự: ô sẵn sàng cho lượt ghi thứ pos khi số thứ tự bằng pos, và sẵn sàng để đọc khi bằng pos + 1.
+ * Luồng ghi giành vị trí bằng CAS trên tail rồi ghi bản ghi và công bố số thứ tự mới; luồng đọc chỉ đọc số thứ tự,
+ * không cần CAS. Khi hàng đợi đầy, offer() trả về false thay vì chờ để không chặn luồng trò chơi.
+ */
+final class LogRingBuffer {
+    private final int mask;
+    private final Log.Record[] records;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // Chỉ luồng đọc ghi
+
+    /**
+     * @param capacity Sức chứa, phải là lũy thừa của 2.
+     */
+    LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Sức chứa phải là lũy thừa của 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.records = new Log.Record[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Thêm một bản ghi (an toàn khi nhiều luồng gọi đồng thời).
+     *
+     * @return false nếu hàng đợi đầy.
+     */
+    boolean offer(Log.Record record) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    records[index] = record;
+                    sequences.set(index, pos + 1); // Công bố bản ghi cho luồng đọc
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // Ô này chưa được luồng đọc giải phóng: hàng đợi đầy
+            } else {
+                pos = tail.get(); // Luồng khác đã giành vị trí này
+            }
+        }
+    }
+
+    /**
+     * Lấy bản ghi tiếp theo (chỉ một luồng được gọi).
+     *
+     * @return Bản ghi, hoặc null nếu hàng đợi rỗng hoặc bản ghi tiếp theo chưa được công bố.
+     */
+    Log.Record poll() {
+        long pos = head;
+        int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        Log.Record record = records[index];
+        records[index] = null;
+        sequences.set(index, pos + mask + 1); // Trả ô cho vòng ghi tiếp theo
+        head = pos + 1;
+        return record;
+    }
+
+    /**
+     * Số bản ghi đã được nhận vào hàng đợi.
+     */
+    long producedCount() {
+        return tail.get();
+    }
+
+    /**
+     * Số bản ghi đã được lấy ra (có thể chưa được in xong).
+     */
+    long consumedCount() {
+        return head;
+    }
+}
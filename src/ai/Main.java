@@ -11,6 +11,7 @@ public class Main {
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             Game game = new Game();
+            game.getProfiler().startSnapshotsFromProperties();
             GameFrame gameFrame = new GameFrame(game);
             // Không sử dụng Timer cho cơ chế turn-based
         });
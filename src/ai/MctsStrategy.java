@@ -0,0 +1,327 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Lớp triển khai chiến lược di chuyển sử dụng Monte Carlo Tree Search (UCT).
+ * Mỗi vòng lặp gồm bốn bước: chọn Node theo UCT, mở rộng một Node con, mô phỏng ngẫu nhiên (rollout)
+ * trên SearchState rồi lan truyền phần thưởng ngược về gốc. Số vòng lặp và thời gian được giới hạn,
+ * nên sức mạnh tăng theo CPU thay vì theo độ sâu như Minimax.
+ *
+ * Khi chạy song song, các luồng dùng chung một cây: việc chọn và cập nhật cây được đồng bộ,
+ * còn rollout chạy song song trên bản sao SearchState riêng. Virtual loss tạm coi các Node đang được
+ * một luồng khác thăm là thua, để các luồng tỏa ra các nhánh khác nhau.
+ */
+public class MctsStrategy implements MovementStrategy {
+    private static final ActionType[] ACTIONS = ActionType.values();
+
+    // Hằng số khám phá của UCT (sqrt(2) với phần thưởng trong [0, 1])
+    private static final double EXPLORATION = Math.sqrt(2);
+    // Độ sâu tối đa của cây và số lượt mô phỏng ngẫu nhiên sau khi rời cây
+    private static final int MAX_TREE_DEPTH = 16;
+    private static final int ROLLOUT_PLIES = 12;
+    // Số lần thua ảo được cộng vào mỗi Node trên đường đi đang được một luồng xử lý
+    private static final int VIRTUAL_LOSS = 1;
+    // Thang đo khi chuyển điểm heuristic sang phần thưởng trong [0, 1]
+    private static final double REWARD_SCALE = 100.0;
+
+    private final int maxIterations;
+    private final long timeBudgetMillis;
+    private final int parallelism;
+    // Pool dùng chung cho các luồng rollout, null nếu chạy tuần tự
+    private final ForkJoinPool pool;
+    private final StateEvaluator evaluator = new StateEvaluator();
+    // Tách từ luồng số của trò chơi ở lượt đầu tiên nếu chưa được đặt seed
+    private SplittableRandom rand;
+
+    // Trạng thái của lượt tìm kiếm hiện tại
+    private TreeNode root;
+    private int iterations;
+    private long deadline;
+    private int lastIterationCount;
+
+    /**
+     * Constructor tạo MctsStrategy chỉ giới hạn theo số vòng lặp.
+     *
+     * @param maxIterations Số vòng lặp tối đa mỗi lượt.
+     */
+    public MctsStrategy(int maxIterations) {
+        this(maxIterations, 0);
+    }
+
+    /**
+     * Constructor tạo MctsStrategy giới hạn theo số vòng lặp và thời gian.
+     *
+     * @param maxIterations    Số vòng lặp tối đa mỗi lượt.
+     * @param timeBudgetMillis Thời gian suy nghĩ tối đa mỗi lượt (ms), 0 nếu không giới hạn.
+     */
+    public MctsStrategy(int maxIterations, long timeBudgetMillis) {
+        this(maxIterations, timeBudgetMillis, 1);
+    }
+
+    /**
+     * Constructor tạo MctsStrategy với nhiều luồng rollout song song.
+     *
+     * @param maxIterations    Số vòng lặp tối đa mỗi lượt (tổng của mọi luồng).
+     * @param timeBudgetMillis Thời gian suy nghĩ tối đa mỗi lượt (ms), 0 nếu không giới hạn.
+     * @param parallelism      Số luồng tìm kiếm, 1 nếu tuần tự.
+     */
+    public MctsStrategy(int maxIterations, long timeBudgetMillis, int parallelism) {
+        this.maxIterations = maxIterations;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = this.parallelism > 1 ? MinimaxStrategy.sharedPool(this.parallelism) : null;
+    }
+
+    /**
+     * Đặt seed cho bộ sinh số ngẫu nhiên để kết quả tuần tự có thể tái lập.
+     *
+     * @param seed Seed của bộ sinh số ngẫu nhiên.
+     */
+    public void setSeed(long seed) {
+        this.rand = new SplittableRandom(seed);
+    }
+
+    /**
+     * Lấy số vòng lặp đã thực hiện trong lượt gần nhất.
+     *
+     * @return Số vòng lặp.
+     */
+    public int getLastIterationCount() {
+        return lastIterationCount;
+    }
+
+    /**
+     * Node của cây tìm kiếm. Phần thưởng luôn tính theo góc nhìn của AIPlayer.
+     */
+    private static final class TreeNode {
+        final TreeNode parent;
+        final ActionType action;     // Hành động dẫn tới Node này
+        final boolean aiChose;       // true nếu hành động do AIPlayer chọn
+        final List<TreeNode> children = new ArrayList<>();
+        ActionType[] untried;        // Các hành động hợp lệ chưa được mở rộng, null nếu chưa tính
+        int untriedCount;
+        int visits;
+        double reward;
+        int virtualLoss;
+
+        TreeNode(TreeNode parent, ActionType action, boolean aiChose) {
+            this.parent = parent;
+            this.action = action;
+            this.aiChose = aiChose;
+        }
+    }
+
+    /**
+     * Hàm chọn và thực hiện hành động tốt nhất tìm được bằng MCTS.
+     *
+     * @param entity Thực thể thực hiện hành động (AIPlayer).
+     * @param game   Trạng thái trò chơi hiện tại.
+     */
+    @Override
+    public void move(Entity entity, Game game) {
+        AIPlayer aiPlayer = (AIPlayer) entity;
+        SearchState rootState = new SearchState(game, aiPlayer, MAX_TREE_DEPTH + ROLLOUT_PLIES);
+        if (rand == null) {
+            rand = game.getRandom().split();
+        }
+
+        root = new TreeNode(null, null, false);
+        iterations = 0;
+        deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        if (pool == null) {
+            runWorker(rootState, rand);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                SearchState workerState = new SearchState(rootState);
+                SplittableRandom workerRand = rand.split();
+                tasks.add(pool.submit(() -> runWorker(workerState, workerRand)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        lastIterationCount = iterations;
+        if (Log.INFO_ENABLED) {
+            Log.info("Số vòng lặp MCTS: {}", lastIterationCount);
+        }
+
+        // Chọn hành động được thăm nhiều nhất (ổn định hơn chọn theo giá trị trung bình)
+        TreeNode best = null;
+        for (TreeNode child : root.children) {
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Hành động: {}, Số lần thăm: {}, Giá trị: {}", child.action, child.visits,
+                        String.format("%.3f", child.reward / Math.max(1, child.visits)));
+            }
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+        root = null;
+
+        if (best != null) {
+            Action bestAction = new Action(best.action);
+            if (best.action == ActionType.PLACE_BOMB) {
+                bestAction.setTargetX(aiPlayer.getX());
+                bestAction.setTargetY(aiPlayer.getY());
+            }
+            Log.info("AIPlayer chọn hành động: {}", best.action);
+            MinimaxStrategy.executeAction(aiPlayer, game, bestAction);
+        } else {
+            Log.warn("AIPlayer không tìm thấy hành động tốt nhất, sử dụng RandomMovementStrategy.");
+            new RandomMovementStrategy(game.getRandom().split()).move(entity, game);
+        }
+    }
+
+    /**
+     * Vòng lặp MCTS của một luồng cho tới khi hết số vòng lặp hoặc hết thời gian.
+     *
+     * @param state Trạng thái tìm kiếm riêng của luồng (ở trạng thái gốc).
+     * @param rand  Bộ sinh số ngẫu nhiên riêng của luồng.
+     */
+    private void runWorker(SearchState state, SplittableRandom rand) {
+        while (true) {
+            TreeNode leaf;
+            synchronized (this) {
+                // Vòng lặp đầu tiên luôn được thực hiện để có ít nhất một hành động
+                if (iterations >= maxIterations
+                        || (timeBudgetMillis > 0 && iterations > 0 && System.nanoTime() >= deadline)) {
+                    return;
+                }
+                iterations++;
+                leaf = selectAndExpand(state, rand);
+            }
+
+            double reward = rollout(state, rand);
+
+            synchronized (this) {
+                backpropagate(leaf, reward);
+            }
+            // Đưa trạng thái về gốc: số lượt cần hoàn tác đúng bằng độ sâu của lá
+            for (TreeNode node = leaf; node.parent != null; node = node.parent) {
+                state.undo();
+            }
+        }
+    }
+
+    /**
+     * Đi từ gốc xuống theo UCT, mở rộng một Node con mới nếu có thể. Mọi hành động trên đường đi
+     * được thực hiện trên state và mọi Node trên đường đi nhận virtual loss.
+     *
+     * @param state Trạng thái tìm kiếm của luồng (ở trạng thái gốc).
+     * @param rand  Bộ sinh số ngẫu nhiên của luồng.
+     * @return Node lá được chọn.
+     */
+    private TreeNode selectAndExpand(SearchState state, SplittableRandom rand) {
+        TreeNode node = root;
+        node.virtualLoss += VIRTUAL_LOSS;
+        for (int depth = 0; depth < MAX_TREE_DEPTH; depth++) {
+            if (node.untried == null) {
+                computeUntried(node, state, rand);
+            }
+            if (node.untriedCount > 0) {
+                // Mở rộng: lấy một hành động chưa thử (thứ tự đã được xáo trộn khi tính)
+                ActionType action = node.untried[--node.untriedCount];
+                boolean aiChose = state.isAiTurn();
+                state.apply(action);
+                TreeNode child = new TreeNode(node, action, aiChose);
+                node.children.add(child);
+                child.virtualLoss += VIRTUAL_LOSS;
+                return child;
+            }
+            if (node.children.isEmpty()) {
+                break; // Không còn hành động hợp lệ
+            }
+            node = selectChild(node);
+            state.apply(node.action);
+            node.virtualLoss += VIRTUAL_LOSS;
+        }
+        return node;
+    }
+
+    /**
+     * Tính các hành động hợp lệ của một Node bằng cách thử apply/undo, theo thứ tự ngẫu nhiên.
+     */
+    private void computeUntried(TreeNode node, SearchState state, SplittableRandom rand) {
+        ActionType[] actions = new ActionType[ACTIONS.length];
+        int count = 0;
+        for (ActionType action : ACTIONS) {
+            if (state.apply(action)) {
+                state.undo();
+                actions[count++] = action;
+            }
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            ActionType tmp = actions[i];
+            actions[i] = actions[j];
+            actions[j] = tmp;
+        }
+        node.untried = actions;
+        node.untriedCount = count;
+    }
+
+    /**
+     * Chọn Node con có giá trị UCT cao nhất theo góc nhìn của bên đang đến lượt.
+     * Virtual loss được tính như các lần thăm thua của bên chọn.
+     */
+    private TreeNode selectChild(TreeNode node) {
+        double logVisits = Math.log(node.visits + node.virtualLoss);
+        TreeNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (TreeNode child : node.children) {
+            int visits = child.visits + child.virtualLoss;
+            // Phần thưởng theo góc nhìn của bên chọn; virtual loss là thua (0) của bên đó
+            double wins = child.aiChose ? child.reward : child.visits - child.reward;
+            double value = wins / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Mô phỏng ngẫu nhiên từ trạng thái hiện tại rồi đánh giá bằng heuristic.
+     * Các lượt mô phỏng được hoàn tác trước khi trả về.
+     *
+     * @param state Trạng thái tìm kiếm tại Node lá.
+     * @param rand  Bộ sinh số ngẫu nhiên của luồng.
+     * @return Phần thưởng trong [0, 1] theo góc nhìn của AIPlayer.
+     */
+    private double rollout(SearchState state, SplittableRandom rand) {
+        int played = 0;
+        for (int ply = 0; ply < ROLLOUT_PLIES; ply++) {
+            // Thử các hành động bắt đầu từ một vị trí ngẫu nhiên, STAY luôn hợp lệ
+            int start = rand.nextInt(ACTIONS.length);
+            for (int i = 0; i < ACTIONS.length; i++) {
+                if (state.apply(ACTIONS[(start + i) % ACTIONS.length])) {
+                    played++;
+                    break;
+                }
+            }
+        }
+        double score = evaluator.heuristic(state);
+        for (int i = 0; i < played; i++) {
+            state.undo();
+        }
+        return 1.0 / (1.0 + Math.exp(-score / REWARD_SCALE));
+    }
+
+    /**
+     * Lan truyền phần thưởng từ Node lá về gốc và gỡ virtual loss.
+     */
+    private void backpropagate(TreeNode leaf, double reward) {
+        for (TreeNode node = leaf; node != null; node = node.parent) {
+            node.visits++;
+            node.reward += reward;
+            node.virtualLoss -= VIRTUAL_LOSS;
+        }
+    }
+}
@@ -2,353 +2,334 @@
 package ai;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Lớp triển khai chiến lược di chuyển sử dụng thuật toán Minimax với Alpha-Beta Pruning.
  */
 public class MinimaxStrategy implements MovementStrategy {
+    // Bảng chuyển vị có 2^18 mục (khoảng 4 MB)
+    private static final int TRANSPOSITION_TABLE_BITS = 18;
+
+    // Số Node giữa hai lần kiểm tra đồng hồ (lũy thừa của 2)
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    // Các pool tìm kiếm dùng chung theo số luồng: luồng của ForkJoinPool là daemon và được giữ suốt chương trình,
+    // nên tạo nhiều chiến lược (ví dụ trong TournamentRunner) không làm số luồng tăng dần
+    private static final Map<Integer, ForkJoinPool> SHARED_POOLS = new ConcurrentHashMap<>();
+
     private final boolean ismaximizingPlayer;
     private int maxDepth;
+    private final long timeBudgetMillis;
+    // Bảng chuyển vị dùng chung cho mọi luồng tìm kiếm (mục được kiểm tra bằng key ^ data)
+    private final TranspositionTable transpositionTable = new TranspositionTable(TRANSPOSITION_TABLE_BITS);
+    private final StateEvaluator evaluator = new StateEvaluator();
+    // Pool dùng chung cho tìm kiếm song song ở gốc, null nếu tìm kiếm tuần tự
+    private final ForkJoinPool pool;
+    // Tách từ luồng số của trò chơi ở lượt đầu tiên nếu chưa được đặt seed
+    private SplittableRandom rand;
+    private boolean randomTieBreak = true;
+
+    // Trạng thái của lượt tìm kiếm hiện tại
+    private long deadline;
+    private boolean canAbort;
+    private volatile boolean stopRequested;
+    private int lastCompletedDepth;
+    private long lastNodeCount;
+    private SearchStats lastSearchStats = new SearchStats();
+    private final SearchStats gameSearchStats = new SearchStats();
 
     /**
-     * Constructor để khởi tạo MinimaxStrategy với độ sâu tối đa.
+     * Constructor để khởi tạo MinimaxStrategy với độ sâu cố định.
      *
      * @param maxDepth Độ sâu tối đa của thuật toán Minimax.
      */
     public MinimaxStrategy(int maxDepth , boolean isMaximizingPlayer) {
-        this.maxDepth = maxDepth;
-        this.ismaximizingPlayer = isMaximizingPlayer;
+        this(maxDepth, isMaximizingPlayer, 0);
     }
 
-
-
     /**
-     * Hàm chính của thuật toán Minimax với Alpha-Beta Pruning.
+     * Constructor để khởi tạo MinimaxStrategy với Iterative Deepening giới hạn thời gian.
+     * Thuật toán tìm kiếm lần lượt ở độ sâu 1, 2, 3... cho tới maxDepth hoặc tới khi hết thời gian,
+     * rồi dùng kết quả của lần lặp hoàn chỉnh cuối cùng.
      *
-     * @param state Trạng thái hiện tại của Node.
-     * @param depth Độ sâu còn lại.
-     * @param alpha Giá trị alpha trong Alpha-Beta Pruning.
-     * @param beta  Giá trị beta trong Alpha-Beta Pruning.
-     * @return Giá trị heuristic của trạng thái.
+     * @param maxDepth         Độ sâu tối đa của thuật toán Minimax.
+     * @param isMaximizingPlayer true nếu là Maximizing Player.
+     * @param timeBudgetMillis Thời gian suy nghĩ tối đa mỗi lượt (ms), 0 để tìm kiếm đúng maxDepth.
      */
-    private int minimax(Node state, int depth, int alpha, int beta) {
-        // Điều kiện dừng đệ quy
-        if (depth == 0 || isOver(state)) {
-            return (int) heuristic(state);
-        }
-
-        if (state.isAiTurn()) { // Lượt AIPlayer (Maximizing Player)
-            int maxEval = Integer.MIN_VALUE;
-            List<Node> children = generateChildren(state);
-            for (Node child : children) {
-                int eval = minimax(child, depth - 1, alpha, beta);
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (alpha >= beta) {
-                    break; // Beta cut-off
-                }
-            }
-            return maxEval;
-        } else { // Lượt Player (Minimizing Player)
-            int minEval = Integer.MAX_VALUE;
-            List<Node> children = generateChildren(state);
-            for (Node child : children) {
-                int eval = minimax(child, depth - 1, alpha, beta);
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (alpha >= beta) {
-                    break; // Alpha cut-off
-                }
-            }
-            return minEval;
-        }
+    public MinimaxStrategy(int maxDepth, boolean isMaximizingPlayer, long timeBudgetMillis) {
+        this(maxDepth, isMaximizingPlayer, timeBudgetMillis, 1);
     }
 
-
-
     /**
-     * Kiểm tra xem trạng thái trò chơi có kết thúc hay không.
+     * Constructor để khởi tạo MinimaxStrategy tìm kiếm song song ở gốc.
+     * Mỗi hành động gốc được tìm kiếm trên một luồng của ForkJoinPool với bản sao trạng thái riêng,
+     * các luồng dùng chung bảng chuyển vị. Điểm của mỗi hành động không phụ thuộc vào thứ tự chạy
+     * của các luồng nên kết quả giống hệt tìm kiếm tuần tự với cùng seed (khi không giới hạn thời gian).
      *
-     * @param state Trạng thái của Node.
-     * @return true nếu trò chơi kết thúc, ngược lại false.
+     * @param maxDepth           Độ sâu tối đa của thuật toán Minimax.
+     * @param isMaximizingPlayer true nếu là Maximizing Player.
+     * @param timeBudgetMillis   Thời gian suy nghĩ tối đa mỗi lượt (ms), 0 để tìm kiếm đúng maxDepth.
+     * @param parallelism        Số luồng tìm kiếm, 1 để tìm kiếm tuần tự trên luồng gọi.
      */
-    private boolean isOver(Node state) {
-        // Kiểm tra điều kiện kết thúc trò chơi dựa trên trạng thái của Node
-        // Bạn cần điều chỉnh điều kiện này dựa trên logic trò chơi của bạn.
-        // Ví dụ:
-        // - Nếu một trong hai người chơi đã thắng hoặc thua.
-        // - Nếu không còn nước đi hợp lệ.
-
-        // Placeholder: Cần triển khai logic cụ thể
-        // Ví dụ:
-        // return state.isGameWon() || state.isGameOver();
-        return false; // Placeholder: Chưa triển khai
+    public MinimaxStrategy(int maxDepth, boolean isMaximizingPlayer, long timeBudgetMillis, int parallelism) {
+        this.maxDepth = maxDepth;
+        this.ismaximizingPlayer = isMaximizingPlayer;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.pool = parallelism > 1 ? sharedPool(parallelism) : null;
     }
 
     /**
-     * Hàm đánh giá trạng thái trò chơi.
+     * Lấy pool tìm kiếm dùng chung có số luồng cho trước (dùng chung với MctsStrategy).
      *
-     * @param state Trạng thái của Node cần đánh giá.
-     * @return Giá trị heuristic của trạng thái.
+     * @param parallelism Số luồng của pool.
+     * @return Pool dùng chung, được tạo ở lần gọi đầu tiên.
      */
-    private double heuristic(Node state) {
-        double score = 0.0;
-
-        // Khoảng cách giữa AI và Player
-        int distance = Math.abs(state.getAiPlayerX() - state.getPlayerX()) +
-                Math.abs(state.getAiPlayerY() - state.getPlayerY());
-        score -= distance * 10; // Người chơi càng gần AI, điểm càng thấp
-
-        // An toàn của vị trí hiện tại
-        if (!isSafe(state)) {
-            score -= 50; // Phạt nếu AI không an toàn
-        }
-
-        // Số bom còn lại và phạm vi nổ
-        score += state.getBombCount() * 20; // AI có bom hơn
-
-        // Nguy hiểm từ bom
-        for (Bomb bomb : state.getBombs()) {
-            if (!bomb.isExploded()) {
-                int bombDistance = Math.abs(bomb.getX() - state.getPlayerX()) +
-                        Math.abs(bomb.getY() - state.getPlayerY());
-                if (bombDistance <= bomb.getExplosionRange()) {
-                    score -= (bomb.getExplosionRange() - bombDistance + 1) * 50;
-                }
-            }
-        }
-
-        // Thêm điểm thưởng khi đặt bom gần người chơi hoặc Balloon
-        if (distance <= 3 && state.getBombCount() > 0) {
-            score += 100;
-        }
-
-        // Phạt khi AI bị dồn vào ngõ cụt
-        if (isCornered(state)) {
-            score -= 150; // Giảm điểm thay vì tăng
-        }
-
-        // Thêm điểm thưởng cho các vị trí có nhiều hướng đi hơn
-        int availableDirections = countAvailableDirections(state.getAiPlayerX(), state.getAiPlayerY(), state.getGameMap());
-        score += availableDirections * 10; // Ưu tiên các vị trí có nhiều hướng đi hơn
-
-        // **Thêm điểm thưởng cho hành động Đặt Bom**
-        if (state.hasJustPlacedBomb()) {
-            score += 150; // Tăng điểm khi AI đã đặt bom
-        }
-
-        return score;
+    static ForkJoinPool sharedPool(int parallelism) {
+        return SHARED_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
     }
 
-
-
     /**
-     * Constructor để khởi tạo MinimaxStrategy với độ sâu tối đa và kiểu người chơi (Maximizing hoặc Minimizing).
+     * Đặt seed cho việc xáo trộn các hành động gốc để kết quả có thể tái lập.
      *
-     * @param maxDepth Độ sâu tối đa của thuật toán Minimax.
-     * @param isMaximizingPlayer true nếu là Maximizing Player, false nếu là Minimizing Player.
+     * @param seed Seed của bộ sinh số ngẫu nhiên.
      */
+    public void setSeed(long seed) {
+        this.rand = new SplittableRandom(seed);
+    }
 
     /**
-     * Kiểm tra xem vị trí của AIPlayer có an toàn không.
+     * Bật hoặc tắt việc chọn ngẫu nhiên giữa các hành động gốc có cùng điểm cao nhất.
+     * Khi tắt, hành động đứng đầu theo thứ tự tìm kiếm được chọn.
      *
-     * @param state Trạng thái của Node.
-     * @return true nếu an toàn, ngược lại false.
+     * @param randomTieBreak true để chọn ngẫu nhiên khi bằng điểm.
      */
-    private boolean isSafe(Node state) {
-        // Kiểm tra xem AIPlayer có bị bom hoặc Balloon đang tấn công không
-        // Bạn cần thêm logic phù hợp dựa trên trạng thái của Node
-        // Placeholder: Giả sử AIPlayer luôn an toàn
-        return true;
+    public void setRandomTieBreak(boolean randomTieBreak) {
+        this.randomTieBreak = randomTieBreak;
     }
 
     /**
-     * Kiểm tra xem AIPlayer có bị dồn vào ngõ cụt không.
+     * Lấy độ sâu của lần lặp hoàn chỉnh cuối cùng trong lượt gần nhất.
      *
-     * @param state Trạng thái của Node.
-     * @return true nếu bị dồn vào ngõ cụt, ngược lại false.
+     * @return Độ sâu đã tìm kiếm xong.
      */
-    private boolean isCornered(Node state) {
-        int x = state.getAiPlayerX();
-        int y = state.getAiPlayerY();
-        int walkable = 0;
-        int[][] directions = {
-                {0, -1}, // Lên
-                {0, 1},  // Xuống
-                {-1, 0}, // Trái
-                {1, 0}   // Phải
-        };
-        for (int[] dir : directions) {
-            int newX = x + dir[0];
-            int newY = y + dir[1];
-            if (isWalkable(newX, newY, state.getGameMap())) {
-                walkable++;
-            }
-        }
-        return walkable <= 1; // Nếu có ít hơn hoặc bằng 1 hướng đi, coi như bị dồn vào ngõ cụt
+    public int getLastCompletedDepth() {
+        return lastCompletedDepth;
     }
 
     /**
-     * Kiểm tra xem ô (x, y) có walkable không.
+     * Lấy số Node đã duyệt trong lượt gần nhất (tổng của mọi lần lặp và mọi luồng).
      *
-     * @param x       Tọa độ X.
-     * @param y       Tọa độ Y.
-     * @param gameMap Bản đồ trò chơi.
-     * @return true nếu ô walkable, ngược lại false.
+     * @return Số Node đã duyệt.
      */
-    private boolean isWalkable(int x, int y, int[][] gameMap) {
-        return x >= 0 && x < gameMap.length &&
-                y >= 0 && y < gameMap[0].length &&
-                gameMap[x][y] == 0; // 0 là ô trống
+    public long getLastNodeCount() {
+        return lastNodeCount;
     }
 
     /**
-     * Đếm số hướng đi khả thi từ vị trí (x, y).
+     * Lấy thống kê tìm kiếm của lượt gần nhất.
      *
-     * @param x       Tọa độ X của AIPlayer.
-     * @param y       Tọa độ Y của AIPlayer.
-     * @param gameMap Bản đồ trò chơi.
-     * @return Số hướng đi khả thi.
+     * @return Thống kê của lượt gần nhất.
      */
-    private int countAvailableDirections(int x, int y, int[][] gameMap) {
-        int count = 0;
-        int[][] directions = {
-                {0, -1}, // Lên
-                {0, 1},  // Xuống
-                {-1, 0}, // Trái
-                {1, 0}   // Phải
-        };
-        for (int[] dir : directions) {
-            int newX = x + dir[0];
-            int newY = y + dir[1];
-            if (isWalkable(newX, newY, gameMap)) {
-                count++;
-            }
-        }
-        return count;
+    public SearchStats getLastSearchStats() {
+        return lastSearchStats;
     }
 
     /**
-     * Tạo danh sách các trạng thái con dựa trên lượt hiện tại trong Node.
+     * Lấy thống kê tìm kiếm cộng dồn của mọi lượt kể từ khi tạo chiến lược (thường là một ván).
      *
-     * @param state Trạng thái hiện tại của Node.
-     * @return Danh sách các trạng thái con.
+     * @return Thống kê cộng dồn.
      */
+    public SearchStats getGameSearchStats() {
+        return gameSearchStats;
+    }
+
+
+
     /**
-     * Tạo danh sách các trạng thái con dựa trên lượt hiện tại trong Node.
-     *
-     * @param state Trạng thái hiện tại của Node.
-     * @return Danh sách các trạng thái con.
+     * Ngữ cảnh tìm kiếm của một luồng: trạng thái tìm kiếm riêng, bảng sắp xếp nước đi, bộ đếm Node và cờ dừng.
      */
-    private List<Node> generateChildren(Node state) {
-        List<Node> children = new ArrayList<>();
-        ActionType[] actionTypes = {
-                ActionType.MOVE_UP,
-                ActionType.MOVE_DOWN,
-                ActionType.MOVE_LEFT,
-                ActionType.MOVE_RIGHT,
-                ActionType.PLACE_BOMB,
-                ActionType.STAY
-        };
+    private final class Searcher {
+        private final SearchState state;
+        private final MoveOrdering ordering;
+        private final SearchStats stats = new SearchStats();
+        private long nodeCount;
+        private boolean aborted;
+
+        Searcher(SearchState state) {
+            this.state = state;
+            this.ordering = new MoveOrdering(state.getWidth() * state.getHeight(), state.getMaxPly());
+        }
 
-        for (ActionType actionType : actionTypes) {
-            // Tạo hành động
-            Action action = new Action(actionType);
-            if (actionType == ActionType.PLACE_BOMB) {
-                action.setTargetX(state.isAiTurn() ? state.getAiPlayerX() : state.getPlayerX());
-                action.setTargetY(state.isAiTurn() ? state.getAiPlayerY() : state.getPlayerY());
-            }
+        /**
+         * Tìm kiếm một hành động gốc ở độ sâu cho trước.
+         *
+         * @param actionType Hành động gốc (đã được kiểm tra là hợp lệ).
+         * @param depth      Độ sâu của lần lặp.
+         * @return Điểm số của hành động.
+         */
+        int searchAction(ActionType actionType, int depth) {
+            state.apply(actionType);
+            int score = minimax(state, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            state.undo();
+            return score;
+        }
 
-            // Mô phỏng hành động và tạo trạng thái mới
-            Node child = simulateAction(state, action, state.isAiTurn());
-            if (child != null) {
-                children.add(child);
+        /**
+         * Hàm chính của thuật toán Minimax với Alpha-Beta Pruning.
+         *
+         * @param state Trạng thái tìm kiếm hiện tại (được thay đổi rồi hoàn tác trong lúc tìm kiếm).
+         * @param depth Độ sâu còn lại.
+         * @param alpha Giá trị alpha trong Alpha-Beta Pruning.
+         * @param beta  Giá trị beta trong Alpha-Beta Pruning.
+         * @return Giá trị heuristic của trạng thái.
+         */
+        int minimax(SearchState state, int depth, int alpha, int beta) {
+            if (isTimeUp()) {
+                return 0; // Kết quả bị bỏ qua vì lần lặp chưa hoàn thành
             }
-        }
 
-        return children;
-    }
+            // Điều kiện dừng đệ quy
+            if (depth == 0 || isOver(state)) {
+                stats.countLeaf();
+                return (int) evaluator.heuristic(state);
+            }
 
-    /**
-     * Simulate một hành động trên một Node và trả về Node mới sau khi thực hiện hành động đó.
-     *
-     * @param currentState Trạng thái hiện tại của Node.
-     * @param action        Hành động cần thực hiện.
-     * @param isAiAction    true nếu hành động được thực hiện bởi AIPlayer, false nếu bởi Player.
-     * @return Trạng thái mới sau khi thực hiện hành động, hoặc null nếu hành động không hợp lệ.
-     */
-    private Node simulateAction(Node currentState, Action action, boolean isAiAction) {
-        // Clone trạng thái hiện tại để không ảnh hưởng đến trạng thái gốc
-        Node clonedState = currentState.clone();
-        if (clonedState == null) return null;
-
-        // Thực hiện hành động trên AIPlayer hoặc Player trong clonedState
-        if (isAiAction) {
-            // Thực hiện hành động trên AIPlayer
-            switch (action.getActionType()) {
-                case MOVE_UP:
-                    if (clonedState.getAiPlayerY() > 0 && isWalkable(clonedState.getAiPlayerX(), clonedState.getAiPlayerY() - 1, clonedState.getGameMap())) {
-                        clonedState.setAiPlayerY(clonedState.getAiPlayerY() - 1);
-                    } else {
-                        return null; // Hành động không hợp lệ
-                    }
-                    break;
-                case MOVE_DOWN:
-                    if (clonedState.getAiPlayerY() < clonedState.getGameMap()[0].length - 1 &&
-                            isWalkable(clonedState.getAiPlayerX(), clonedState.getAiPlayerY() + 1, clonedState.getGameMap())) {
-                        clonedState.setAiPlayerY(clonedState.getAiPlayerY() + 1);
-                    } else {
-                        return null; // Hành động không hợp lệ
+            // Tra bảng chuyển vị: chỉ dùng mục có cùng độ sâu để kết quả giống hệt Minimax không có bảng
+            long key = state.getZobristKey();
+            long entry = transpositionTable.probe(key);
+            ActionType hashMove = null;
+            stats.countProbe(entry != TranspositionTable.MISS);
+            if (entry != TranspositionTable.MISS) {
+                hashMove = TranspositionTable.bestMoveOf(entry);
+                if (TranspositionTable.depthOf(entry) == depth) {
+                    int value = TranspositionTable.valueOf(entry);
+                    switch (TranspositionTable.boundOf(entry)) {
+                        case TranspositionTable.EXACT:
+                            stats.countTableCutoff();
+                            return value;
+                        case TranspositionTable.LOWER_BOUND:
+                            alpha = Math.max(alpha, value);
+                            break;
+                        case TranspositionTable.UPPER_BOUND:
+                            beta = Math.min(beta, value);
+                            break;
                     }
-                    break;
-                case MOVE_LEFT:
-                    if (clonedState.getAiPlayerX() > 0 && isWalkable(clonedState.getAiPlayerX() - 1, clonedState.getAiPlayerY(), clonedState.getGameMap())) {
-                        clonedState.setAiPlayerX(clonedState.getAiPlayerX() - 1);
-                    } else {
-                        return null; // Hành động không hợp lệ
+                    if (alpha >= beta) {
+                        stats.countTableCutoff();
+                        return value;
                     }
-                    break;
-                case MOVE_RIGHT:
-                    if (clonedState.getAiPlayerX() < clonedState.getGameMap().length - 1 &&
-                            isWalkable(clonedState.getAiPlayerX() + 1, clonedState.getAiPlayerY(), clonedState.getGameMap())) {
-                        clonedState.setAiPlayerX(clonedState.getAiPlayerX() + 1);
-                    } else {
-                        return null; // Hành động không hợp lệ
+                }
+            }
+            int alphaOrig = alpha;
+            int betaOrig = beta;
+
+            boolean maximizing = state.isAiTurn(); // Lượt AIPlayer (Maximizing Player)
+            int bestEval = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            ActionType bestMove = null;
+
+            // Sắp xếp: nước đi từ bảng chuyển vị, killer move rồi history
+            int ply = state.getPly();
+            int side = maximizing ? MoveOrdering.AI_SIDE : MoveOrdering.PLAYER_SIDE;
+            int cell = maximizing
+                    ? state.getAiPlayerX() * state.getHeight() + state.getAiPlayerY()
+                    : state.getPlayerX() * state.getHeight() + state.getPlayerY();
+            int moveCount = ordering.orderMoves(ply, side, cell, hashMove);
+            // Bom của Player không thể tới AIPlayer: đặt bom không tốt hơn đứng yên nên không cần duyệt
+            boolean skipPlayerBomb = !maximizing && !state.canPlayerBombReachAi(depth);
+            int searched = 0; // Số nước đi hợp lệ đã duyệt
+            for (int i = 0; i < moveCount; i++) {
+                ActionType actionType = ordering.moveAt(ply, i);
+                if (skipPlayerBomb && actionType == ActionType.PLACE_BOMB) {
+                    continue;
+                }
+                if (!state.apply(actionType)) {
+                    continue; // Hành động không hợp lệ
+                }
+                int moveIndex = searched++;
+                int eval = minimax(state, depth - 1, alpha, beta);
+                state.undo();
+                if (aborted) {
+                    return 0; // Không lưu kết quả dở dang vào bảng chuyển vị
+                }
+                if (maximizing) {
+                    if (bestMove == null || eval > bestEval) {
+                        bestEval = eval;
+                        bestMove = actionType;
                     }
-                    break;
-                case PLACE_BOMB:
-                    // Đặt bom tại vị trí hiện tại của AIPlayer
-                    if (clonedState.getBombCount() > 0 && isWalkable(clonedState.getAiPlayerX(), clonedState.getAiPlayerY(), clonedState.getGameMap())) {
-                        Bomb newBomb = new Bomb(clonedState.getAiPlayerX(), clonedState.getAiPlayerY(), 30, "AIPlayer", clonedState.getExplosionRange());
-                        clonedState.getBombs().add(newBomb);
-                        clonedState.setBombCount(clonedState.getBombCount() - 1);
-                        markBombPlaced(clonedState); // Đánh dấu rằng bom đã được đặt
-                    } else {
-                        return null; // Không thể đặt bom
+                    alpha = Math.max(alpha, eval);
+                } else {
+                    if (bestMove == null || eval < bestEval) {
+                        bestEval = eval;
+                        bestMove = actionType;
                     }
-                    break;
-                case STAY:
-                    // Không thực hiện gì
-                    break;
+                    beta = Math.min(beta, eval);
+                }
+                if (alpha >= beta) {
+                    stats.countCutoff(moveIndex);
+                    ordering.recordCutoff(ply, side, cell, actionType, depth);
+                    break; // Beta cut-off (Max) hoặc Alpha cut-off (Min)
+                }
             }
-        } else {
-            // Thực hiện hành động trên Player (nếu cần thiết)
-            // Bạn có thể triển khai tương tự như trên
-        }
 
-        // Chuyển lượt chơi
-        clonedState.setAiTurn(!currentState.isAiTurn());
+            // Lưu kết quả vào bảng chuyển vị cùng loại cận tương ứng
+            int bound;
+            if (bestEval <= alphaOrig) {
+                bound = TranspositionTable.UPPER_BOUND;
+            } else if (bestEval >= betaOrig) {
+                bound = TranspositionTable.LOWER_BOUND;
+            } else {
+                bound = TranspositionTable.EXACT;
+            }
+            transpositionTable.store(key, depth, bestEval, bound, bestMove);
+            return bestEval;
+        }
 
-        return clonedState;
+        /**
+         * Kiểm tra xem đã hết thời gian suy nghĩ chưa. Đồng hồ chỉ được đọc sau mỗi TIME_CHECK_INTERVAL Node.
+         *
+         * @return true nếu lần lặp hiện tại phải dừng.
+         */
+        boolean isTimeUp() {
+            if ((++nodeCount & (TIME_CHECK_INTERVAL - 1)) == 0 && canAbort
+                    && (stopRequested || System.nanoTime() >= deadline)) {
+                aborted = true;
+                stopRequested = true; // Dừng cả các luồng khác
+            }
+            return aborted;
+        }
     }
 
-    private void markBombPlaced(Node state) {
-        state.setJustPlacedBomb(true);
+    /**
+     * Kiểm tra xem trạng thái trò chơi có kết thúc hay không.
+     *
+     * @param state Trạng thái tìm kiếm.
+     * @return true nếu trò chơi kết thúc, ngược lại false.
+     */
+    private boolean isOver(SearchState state) {
+        // Kiểm tra điều kiện kết thúc trò chơi dựa trên trạng thái của Node
+        // Bạn cần điều chỉnh điều kiện này dựa trên logic trò chơi của bạn.
+        // Ví dụ:
+        // - Nếu một trong hai người chơi đã thắng hoặc thua.
+        // - Nếu không còn nước đi hợp lệ.
+
+        // Placeholder: Cần triển khai logic cụ thể
+        // Ví dụ:
+        // return state.isGameWon() || state.isGameOver();
+        return false; // Placeholder: Chưa triển khai
     }
 
+    /**
+     * Constructor để khởi tạo MinimaxStrategy với độ sâu tối đa và kiểu người chơi (Maximizing hoặc Minimizing).
+     *
+     * @param maxDepth Độ sâu tối đa của thuật toán Minimax.
+     * @param isMaximizingPlayer true nếu là Maximizing Player, false nếu là Minimizing Player.
+     */
 
     /**
      * Hàm thực hiện hành động tốt nhất tìm được bằng thuật toán Minimax.
@@ -359,79 +340,204 @@ public class MinimaxStrategy implements MovementStrategy {
     @Override
     public void move(Entity entity, Game game) {
         AIPlayer aiPlayer = (AIPlayer) entity;
-        // Tạo Node hiện tại dựa trên trạng thái của game
-        Node currentState = new Node(
-                aiPlayer.getX(),
-                aiPlayer.getY(),
-                game.getPlayer().getX(),
-                game.getPlayer().getY(),
-                aiPlayer.getBombCount(),
-                game.getGameMap().clone().getMap(),
-                clonedBombs(game.getBombs()),
-                aiPlayer.getExplosionRange(),
-                true // AIPlayer đang làm lượt
-        );
-
-        // Thực hiện thuật toán Minimax để tìm điểm số tốt nhất
-        int bestScore = Integer.MIN_VALUE;
-        Action bestAction = null;
+        AiDecisionJfrEvent event = new AiDecisionJfrEvent();
+        event.begin();
+        long moveStart = System.nanoTime();
+        SearchStats stats = new SearchStats();
+        // Tạo trạng thái tìm kiếm dựa trên trạng thái của game, dùng chung cho toàn bộ cây
+        SearchState currentState = new SearchState(game, aiPlayer, maxDepth);
+        if (rand == null) {
+            rand = game.getRandom().split();
+        }
+
+        // Các mục của lượt trước được coi là cũ (bản đồ và bom có thể đã thay đổi)
+        transpositionTable.newSearch();
 
         List<Action> possibleActions = generatePossibleActions(currentState);
-        System.out.println("Các hành động có thể: ");
-        for (Action action : possibleActions) {
-            System.out.println("- " + action.getActionType());
+        if (Log.DEBUG_ENABLED) {
+            Log.debug("Các hành động có thể: ");
+            for (Action action : possibleActions) {
+                Log.debug("- {}", action.getActionType());
+            }
         }
 
+        // Loại bỏ các hành động không hợp lệ, chúng không hợp lệ ở mọi độ sâu
+        List<Action> validActions = new ArrayList<>();
         for (Action action : possibleActions) {
-            // Mô phỏng hành động và tạo trạng thái mới
-            Node childState = simulateAction(currentState, action, true);
-            if (childState == null) {
-                System.out.println("Không thể mô phỏng hành động: " + action.getActionType());
+            if (!currentState.apply(action.getActionType())) {
+                Log.debug("Không thể mô phỏng hành động: {}", action.getActionType());
                 continue; // Hành động không hợp lệ
             }
+            currentState.undo();
+            validActions.add(action);
+        }
+
+        // Iterative Deepening: mỗi lần lặp sắp xếp lại các hành động theo điểm của lần lặp trước
+        deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        canAbort = false; // Lần lặp đầu tiên luôn được hoàn thành
+        stopRequested = false;
+        lastCompletedDepth = 0;
+        Searcher searcher = new Searcher(currentState);
+        // Khi tìm kiếm song song, mỗi hành động gốc giữ một ngữ cảnh riêng qua các lần lặp
+        Searcher[] rootSearchers = new Searcher[ActionType.values().length];
+        int[] scores = null;
+        int firstDepth = timeBudgetMillis > 0 ? 1 : maxDepth;
+        for (int depth = firstDepth; depth <= maxDepth && !validActions.isEmpty(); depth++) {
+            long iterationStart = System.nanoTime();
+            long nodesBefore = countNodes(searcher, rootSearchers);
+            int[] iterationScores = pool != null
+                    ? searchRootParallel(currentState, rootSearchers, validActions, depth)
+                    : searchRoot(searcher, validActions, depth);
+            if (iterationScores == null) {
+                break; // Hết thời gian
+            }
+            stats.addIteration(depth, countNodes(searcher, rootSearchers) - nodesBefore,
+                    System.nanoTime() - iterationStart);
+            scores = iterationScores;
+            lastCompletedDepth = depth;
+            sortByScore(validActions, scores);
+            canAbort = timeBudgetMillis > 0;
+        }
+        lastNodeCount = countNodes(searcher, rootSearchers);
+        stats.add(searcher.stats);
+        for (Searcher rootSearcher : rootSearchers) {
+            if (rootSearcher != null) {
+                stats.add(rootSearcher.stats);
+            }
+        }
+        stats.finishSearch(lastNodeCount, lastCompletedDepth, System.nanoTime() - moveStart);
+        lastSearchStats = stats;
+        gameSearchStats.add(stats);
+        if (Log.INFO_ENABLED) {
+            Log.info("Độ sâu đã tìm kiếm: {}, số Node: {}", lastCompletedDepth, lastNodeCount);
+        }
 
-            int score = minimax(childState, maxDepth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
-            System.out.println("Hành động: " + action.getActionType() + ", Điểm số: " + score);
-            if (score > bestScore) {
-                bestScore = score;
-                bestAction = action;
+        // Danh sách đã được sắp xếp giảm dần: chọn trong các hành động có cùng điểm cao nhất
+        Action bestAction = null;
+        if (scores != null) {
+            int tied = 0;
+            for (int i = 0; i < validActions.size(); i++) {
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("Hành động: {}, Điểm số: {}", validActions.get(i).getActionType(), scores[i]);
+                }
+                if (scores[i] == scores[0]) {
+                    tied++;
+                }
             }
+            bestAction = validActions.get(randomTieBreak ? rand.nextInt(tied) : 0);
         }
 
         // Thực hiện hành động tốt nhất
         if (bestAction != null) {
-            System.out.println("AIPlayer chọn hành động: " + bestAction.getActionType());
+            Log.info("AIPlayer chọn hành động: {}", bestAction.getActionType());
             executeAction(aiPlayer, game, bestAction);
         } else {
             // Nếu không có hành động nào, AI có thể chọn ở lại hoặc di chuyển ngẫu nhiên
-            System.out.println("AIPlayer không tìm thấy hành động tốt nhất, sử dụng RandomMovementStrategy.");
-            new RandomMovementStrategy().move(entity, game);
+            Log.warn("AIPlayer không tìm thấy hành động tốt nhất, sử dụng RandomMovementStrategy.");
+            new RandomMovementStrategy(game.getRandom().split()).move(entity, game);
+        }
+        if (event.shouldCommit()) {
+            event.depth = lastCompletedDepth;
+            event.nodes = lastNodeCount;
+            event.action = bestAction != null ? bestAction.getActionType().name() : "RANDOM";
+            event.commit();
         }
     }
 
 
 
     /**
-     * Clone danh sách bom để tránh thay đổi trạng thái gốc.
+     * Đếm tổng số Node của ngữ cảnh tìm kiếm tuần tự và các ngữ cảnh song song.
+     */
+    private long countNodes(Searcher searcher, Searcher[] rootSearchers) {
+        long nodes = searcher.nodeCount;
+        for (Searcher rootSearcher : rootSearchers) {
+            if (rootSearcher != null) {
+                nodes += rootSearcher.nodeCount;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Tìm kiếm một lần lặp ở độ sâu cho trước cho từng hành động gốc.
+     *
+     * @param searcher Ngữ cảnh tìm kiếm trên trạng thái gốc.
+     * @param actions  Các hành động hợp lệ tại gốc.
+     * @param depth    Độ sâu của lần lặp.
+     * @return Điểm số của từng hành động theo cùng thứ tự, hoặc null nếu hết thời gian.
+     */
+    private int[] searchRoot(Searcher searcher, List<Action> actions, int depth) {
+        int[] scores = new int[actions.size()];
+        for (int i = 0; i < actions.size(); i++) {
+            scores[i] = searcher.searchAction(actions.get(i).getActionType(), depth);
+            if (searcher.aborted) {
+                return null;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Tìm kiếm một lần lặp song song: mỗi hành động gốc là một tác vụ trên ForkJoinPool
+     * với bản sao trạng thái riêng. Điểm số được ghép lại theo đúng thứ tự của danh sách hành động.
+     *
+     * @param state     Trạng thái tìm kiếm tại gốc.
+     * @param searchers Ngữ cảnh của từng hành động gốc theo ordinal, được tạo khi cần.
+     * @param actions   Các hành động hợp lệ tại gốc.
+     * @param depth     Độ sâu của lần lặp.
+     * @return Điểm số của từng hành động theo cùng thứ tự, hoặc null nếu hết thời gian.
+     */
+    private int[] searchRootParallel(SearchState state, Searcher[] searchers, List<Action> actions, int depth) {
+        List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+        for (Action action : actions) {
+            int index = action.getActionType().ordinal();
+            if (searchers[index] == null) {
+                searchers[index] = new Searcher(new SearchState(state));
+            }
+            Searcher searcher = searchers[index];
+            tasks.add(pool.submit(() -> searcher.searchAction(action.getActionType(), depth)));
+        }
+        int[] scores = new int[actions.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            scores[i] = tasks.get(i).join();
+        }
+        for (Searcher searcher : searchers) {
+            if (searcher != null && searcher.aborted) {
+                return null;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Sắp xếp các hành động giảm dần theo điểm số (ổn định, giữ thứ tự cũ khi bằng điểm).
      *
-     * @param originalBombs Danh sách bom gốc.
-     * @return Danh sách bom clone.
+     * @param actions Danh sách hành động.
+     * @param scores  Điểm số tương ứng, được sắp xếp cùng danh sách.
      */
-    private List<Bomb> clonedBombs(List<Bomb> originalBombs) {
-        List<Bomb> clonedBombs = new ArrayList<>();
-        for (Bomb bomb : originalBombs) {
-            clonedBombs.add(bomb.clone()); // Giả sử Bomb có phương thức clone()
+    private void sortByScore(List<Action> actions, int[] scores) {
+        for (int i = 1; i < scores.length; i++) {
+            int score = scores[i];
+            Action action = actions.get(i);
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                scores[j + 1] = scores[j];
+                actions.set(j + 1, actions.get(j));
+                j--;
+            }
+            scores[j + 1] = score;
+            actions.set(j + 1, action);
         }
-        return clonedBombs;
     }
 
     /**
      * Tạo danh sách các hành động có thể cho AIPlayer trong trạng thái hiện tại.
      *
-     * @param state Trạng thái hiện tại của Node.
+     * @param state Trạng thái tìm kiếm hiện tại.
      * @return Danh sách các hành động có thể.
      */
-    private List<Action> generatePossibleActions(Node state) {
+    private List<Action> generatePossibleActions(SearchState state) {
         List<Action> actions = new ArrayList<>();
         ActionType[] actionTypes = {ActionType.MOVE_UP, ActionType.MOVE_DOWN, ActionType.MOVE_LEFT, ActionType.MOVE_RIGHT, ActionType.PLACE_BOMB, ActionType.STAY};
         for (ActionType actionType : actionTypes) {
@@ -442,35 +548,34 @@ public class MinimaxStrategy implements MovementStrategy {
             }
             actions.add(action);
         }
-        // Xáo trộn danh sách hành động để tránh ưu tiên cố định
-        Collections.shuffle(actions, new Random());
+        // Không xáo trộn: thứ tự được quyết định bởi điểm số, ngẫu nhiên chỉ dùng khi bằng điểm
         return actions;
     }
 
     /**
-     * Thực hiện hành động trên một thực thể trong trò chơi.
+     * Thực hiện hành động trên một thực thể trong trò chơi (dùng chung với MctsStrategy).
      *
      * @param entity Thực thể thực hiện hành động.
      * @param game   Trạng thái trò chơi hiện tại.
      * @param action Hành động cần thực hiện.
      */
-    private void executeAction(Entity entity, Game game, Action action) {
+    static void executeAction(Entity entity, Game game, Action action) {
         switch (action.getActionType()) {
             case MOVE_UP:
                 game.moveEntity(entity, 0, -1);
-                System.out.println(entity.getClass().getSimpleName() + " di chuyển lên.");
+                Log.debug("{} di chuyển lên.", entity.getClass().getSimpleName());
                 break;
             case MOVE_DOWN:
                 game.moveEntity(entity, 0, 1);
-                System.out.println(entity.getClass().getSimpleName() + " di chuyển xuống.");
+                Log.debug("{} di chuyển xuống.", entity.getClass().getSimpleName());
                 break;
             case MOVE_LEFT:
                 game.moveEntity(entity, -1, 0);
-                System.out.println(entity.getClass().getSimpleName() + " di chuyển trái.");
+                Log.debug("{} di chuyển trái.", entity.getClass().getSimpleName());
                 break;
             case MOVE_RIGHT:
                 game.moveEntity(entity, 1, 0);
-                System.out.println(entity.getClass().getSimpleName() + " di chuyển phải.");
+                Log.debug("{} di chuyển phải.", entity.getClass().getSimpleName());
                 break;
             case PLACE_BOMB:
                 int bombX = action.getTargetX();
@@ -479,68 +584,54 @@ public class MinimaxStrategy implements MovementStrategy {
                     Bomb newBomb = new Bomb(bombX, bombY, 30, entity, entity.getExplosionRange());
                     game.addBomb(newBomb);
                     entity.placeBomb();
-                    System.out.println(entity.getClass().getSimpleName() + " đặt bom tại (" + bombX + ", " + bombY + ").");
-
-                    // Sau khi đặt bom, tìm đường thoát an toàn
-                    Pathfinding pathfinding = new Pathfinding(game.getGameMap());
-
-                    // Tìm vị trí an toàn gần nhất
-                    int[] safePosition = findNearestSafePosition(bombX, bombY, game);
-                    if (safePosition != null) {
-                        List<int[]> escapePath = pathfinding.findSafePath(
-                                bombX,
-                                bombY,
-                                safePosition[0],
-                                safePosition[1],
-                                game
-                        );
+                    if (Log.INFO_ENABLED) {
+                        Log.info("{} đặt bom tại ({}, {}).", entity.getClass().getSimpleName(), bombX, bombY);
+                    }
 
+                    // Sau khi đặt bom, tìm vị trí an toàn gần nhất và bước đi đầu tiên tới đó (một lần BFS)
+                    int[] nextStep = findNearestSafePosition(entity, bombX, bombY, game);
+                    if (nextStep != null) {
                         // Nếu tìm được đường thoát, di chuyển tới bước tiếp theo
-                        if (!escapePath.isEmpty()) {
-                            int[] nextStep = escapePath.get(0);
-                            int dx = nextStep[0] - bombX;
-                            int dy = nextStep[1] - bombY;
+                        if (nextStep[2] >= 0) {
+                            int dx = nextStep[2] - bombX;
+                            int dy = nextStep[3] - bombY;
                             game.moveEntity(entity, dx, dy);
-                            System.out.println(entity.getClass().getSimpleName() + " di chuyển tới (" + nextStep[0] + ", " + nextStep[1] + ") để tránh bom.");
+                            if (Log.DEBUG_ENABLED) {
+                                Log.debug("{} di chuyển tới ({}, {}) để tránh bom.", entity.getClass().getSimpleName(),
+                                        nextStep[2], nextStep[3]);
+                            }
                         } else {
-                            System.out.println(entity.getClass().getSimpleName() + " không thể tìm đường thoát sau khi đặt bom.");
+                            Log.warn("{} không thể tìm đường thoát sau khi đặt bom.", entity.getClass().getSimpleName());
                         }
                     } else {
-                        System.out.println("Không tìm thấy vị trí an toàn để thoát.");
+                        Log.warn("Không tìm thấy vị trí an toàn để thoát.");
                     }
                 } else {
-                    System.out.println("Không thể đặt bom tại (" + bombX + ", " + bombY + ") vì không có đường thoát an toàn.");
+                    if (Log.DEBUG_ENABLED) {
+                        Log.debug("Không thể đặt bom tại ({}, {}) vì không có đường thoát an toàn.", bombX, bombY);
+                    }
                 }
                 break;
             case STAY:
-                System.out.println(entity.getClass().getSimpleName() + " ở lại.");
+                Log.debug("{} ở lại.", entity.getClass().getSimpleName());
                 break;
         }
     }
 
     /**
-     * Tìm vị trí an toàn gần nhất từ (bombX, bombY).
+     * Tìm vị trí an toàn gần nhất có thể tới được từ (bombX, bombY), có tính thời gian nổ của các bom.
      *
-     * @param bombX Tọa độ X của bom.
-     * @param bombY Tọa độ Y của bom.
-     * @param game  Trạng thái trò chơi hiện tại.
-     * @return Vị trí an toàn dưới dạng mảng int[]{x, y}, hoặc null nếu không tìm được.
+     * @param entity Thực thể cần thoát (quyết định số lượt cho mỗi bước đi).
+     * @param bombX  Tọa độ X của bom.
+     * @param bombY  Tọa độ Y của bom.
+     * @param game   Trạng thái trò chơi hiện tại.
+     * @return Mảng int[]{x, y, bướcX, bướcY} gồm vị trí an toàn và bước đi đầu tiên tới đó
+     *         (bướcX = -1 nếu đã ở vị trí an toàn), hoặc null nếu không tìm được.
      */
-    private int[] findNearestSafePosition(int bombX, int bombY, Game game) {
-        List<int[]> safePositions = game.getGameMap().findSafePositions(game.getAiPlayer(), game);
-        if (safePositions.isEmpty()) return null;
-
-        // Tìm vị trí an toàn gần nhất
-        int minDistance = Integer.MAX_VALUE;
-        int[] nearest = null;
-        for (int[] pos : safePositions) {
-            int distance = Math.abs(pos[0] - bombX) + Math.abs(pos[1] - bombY);
-            if (distance < minDistance) {
-                minDistance = distance;
-                nearest = pos;
-            }
-        }
-        return nearest;
+    private static int[] findNearestSafePosition(Entity entity, int bombX, int bombY, Game game) {
+        EscapeSolver solver = game.getEscapeSolver();
+        if (!solver.solve(game, bombX, bombY, entity.getTicksPerStep())) return null;
+        return new int[]{solver.getTargetX(), solver.getTargetY(), solver.getNextStepX(), solver.getNextStepY()};
     }
 
     /**
@@ -552,27 +643,20 @@ public class MinimaxStrategy implements MovementStrategy {
      * @param bombY  Tọa độ Y của bom.
      * @return true nếu có thể đặt bom an toàn, ngược lại false.
      */
-    private boolean canPlaceBombSafely(Game game, Entity entity, int bombX, int bombY) {
+    private static boolean canPlaceBombSafely(Game game, Entity entity, int bombX, int bombY) {
         // Đảm bảo AIPlayer có bombCount > 0
         if (entity.getBombCount() <= 0) {
-            System.out.println("AIPlayer không còn bom để đặt.");
-            return false;
-        }
-
-        // Clone game để kiểm tra
-        Game clonedGame = game.clone();
-        if (clonedGame == null) {
-            System.out.println("Không thể clone game.");
+            Log.debug("AIPlayer không còn bom để đặt.");
             return false;
         }
 
-        // Kiểm tra xem AIPlayer có thể thoát an toàn sau khi đặt bom
-        if (!clonedGame.canEscape(entity, bombX, bombY)) {
-            System.out.println("AIPlayer không thể thoát sau khi đặt bom.");
+        // Kiểm tra xem AIPlayer có thể thoát an toàn sau khi đặt bom (không cần clone, canEscape không thay đổi game)
+        if (!game.canEscape(entity, bombX, bombY)) {
+            Log.debug("AIPlayer không thể thoát sau khi đặt bom.");
             return false;
         }
 
-        System.out.println("AIPlayer có thể đặt bom an toàn.");
+        Log.debug("AIPlayer có thể đặt bom an toàn.");
         return true;
     }
 }
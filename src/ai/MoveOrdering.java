@@ -0,0 +1,110 @@
+package ai;
+
+/**
+ * Sắp xếp thứ tự thử các hành động trong Minimax để Alpha-Beta cắt tỉa sớm hơn.
+ * Thứ tự ưu tiên: nước đi tốt nhất từ bảng chuyển vị, hai killer move của cùng tầng,
+ * sau đó theo bảng history (các hành động từng gây cut-off ở cùng ô được ưu tiên).
+ * Mọi mảng được cấp phát sẵn theo tầng nên việc sắp xếp không cấp phát bộ nhớ.
+ */
+public class MoveOrdering {
+    public static final int AI_SIDE = 0;
+    public static final int PLAYER_SIDE = 1;
+
+    private static final ActionType[] ACTIONS = ActionType.values();
+    private static final int ACTION_COUNT = ACTIONS.length;
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int FIRST_KILLER_SCORE = 1 << 29;
+    private static final int SECOND_KILLER_SCORE = 1 << 28;
+    // Khi một giá trị history vượt ngưỡng này, toàn bộ bảng được chia đôi để tránh tràn số
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final int cells;
+    private final int[] history;       // [side][ô][hành động]
+    private final int[][] killers;     // [tầng][2], -1 nếu chưa có
+    private final ActionType[][] moves; // [tầng][thứ tự]
+    private final int[][] scores;      // [tầng][thứ tự]
+
+    /**
+     * Constructor tạo bảng sắp xếp cho một luồng tìm kiếm.
+     *
+     * @param cells  Số ô trên bản đồ (width * height).
+     * @param maxPly Số tầng tối đa của cây tìm kiếm.
+     */
+    public MoveOrdering(int cells, int maxPly) {
+        this.cells = cells;
+        this.history = new int[2 * cells * ACTION_COUNT];
+        this.killers = new int[maxPly + 1][2];
+        this.moves = new ActionType[maxPly + 1][ACTION_COUNT];
+        this.scores = new int[maxPly + 1][ACTION_COUNT];
+        for (int[] killer : killers) {
+            killer[0] = -1;
+            killer[1] = -1;
+        }
+    }
+
+    /**
+     * Sắp xếp các hành động của một Node. Kết quả được đọc bằng moveAt(ply, i).
+     *
+     * @param ply      Tầng của Node trong cây tìm kiếm.
+     * @param side     Bên đang đến lượt (AI_SIDE hoặc PLAYER_SIDE).
+     * @param cell     Ô của bên đang đến lượt (x * height + y).
+     * @param hashMove Nước đi tốt nhất từ bảng chuyển vị, hoặc null.
+     * @return Số hành động đã sắp xếp.
+     */
+    public int orderMoves(int ply, int side, int cell, ActionType hashMove) {
+        ActionType[] plyMoves = moves[ply];
+        int[] plyScores = scores[ply];
+        int base = (side * cells + cell) * ACTION_COUNT;
+        for (int i = 0; i < ACTION_COUNT; i++) {
+            ActionType action = ACTIONS[i];
+            int score;
+            if (action == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (killers[ply][0] == i) {
+                score = FIRST_KILLER_SCORE;
+            } else if (killers[ply][1] == i) {
+                score = SECOND_KILLER_SCORE;
+            } else {
+                score = history[base + i];
+            }
+            // Sắp xếp chèn giảm dần, ổn định với các hành động bằng điểm
+            int j = i - 1;
+            while (j >= 0 && plyScores[j] < score) {
+                plyScores[j + 1] = plyScores[j];
+                plyMoves[j + 1] = plyMoves[j];
+                j--;
+            }
+            plyScores[j + 1] = score;
+            plyMoves[j + 1] = action;
+        }
+        return ACTION_COUNT;
+    }
+
+    public ActionType moveAt(int ply, int index) {
+        return moves[ply][index];
+    }
+
+    /**
+     * Ghi nhận một hành động đã gây cut-off để ưu tiên nó ở các Node sau.
+     *
+     * @param ply    Tầng của Node.
+     * @param side   Bên đang đến lượt.
+     * @param cell   Ô của bên đang đến lượt.
+     * @param action Hành động gây cut-off.
+     * @param depth  Độ sâu còn lại của Node (cut-off càng sâu càng có giá trị).
+     */
+    public void recordCutoff(int ply, int side, int cell, ActionType action, int depth) {
+        int move = action.ordinal();
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = (side * cells + cell) * ACTION_COUNT + move;
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Chỉ mục chiếm chỗ theo ô cho các thực thể và bom của trò chơi.
+ *
+ * Mỗi thực thể được cấp một slot; các slot cùng ô được nối thành danh sách liên kết đôi bằng mảng int
+ * (head theo ô, next/prev theo slot), nên thêm, xóa và di chuyển là O(1) và câu hỏi "ô này có ai không"
+ * chỉ duyệt các thực thể đang đứng trên đúng ô đó. Số bom trên mỗi ô được đếm trong một mảng riêng.
+ *
+ * Vị trí được đồng bộ bằng sync() sau mỗi lần thực thể có thể di chuyển (các chiến lược gọi setX/setY trực tiếp),
+ * Game gọi sync() sau lượt của từng thực thể.
+ */
+public class OccupancyGrid {
+    private static final int NONE = -1;
+
+    private final int width;
+    private final int height;
+    private final int[] head;      // Slot đầu tiên của mỗi ô
+    private final int[] bombCount; // Số bom trên mỗi ô
+    private Entity[] entities = new Entity[8];
+    private int[] cellOf = new int[8]; // Ô hiện tại của slot, NONE nếu nằm ngoài bản đồ
+    private int[] next = new int[8];
+    private int[] prev = new int[8];
+    private int slotCount;
+
+    /**
+     * Constructor tạo chỉ mục rỗng cho bản đồ có kích thước (width, height).
+     *
+     * @param width  Chiều rộng bản đồ.
+     * @param height Chiều cao bản đồ.
+     */
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.head = new int[width * height];
+        this.bombCount = new int[width * height];
+        Arrays.fill(head, NONE);
+    }
+
+    /**
+     * Constructor sao chép, dùng khi clone trò chơi (các thực thể được dùng chung nên giữ nguyên slot).
+     *
+     * @param other Chỉ mục cần sao chép.
+     */
+    public OccupancyGrid(OccupancyGrid other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.head = other.head.clone();
+        this.bombCount = other.bombCount.clone();
+        this.entities = other.entities.clone();
+        this.cellOf = other.cellOf.clone();
+        this.next = other.next.clone();
+        this.prev = other.prev.clone();
+        this.slotCount = other.slotCount;
+    }
+
+    /**
+     * Thêm một thực thể vừa xuất hiện.
+     *
+     * @param entity Thực thể cần thêm.
+     */
+    public void add(Entity entity) {
+        if (slotCount == entities.length) {
+            int capacity = slotCount * 2;
+            entities = Arrays.copyOf(entities, capacity);
+            cellOf = Arrays.copyOf(cellOf, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        int slot = slotCount++;
+        entities[slot] = entity;
+        entity.occupancySlot = slot;
+        cellOf[slot] = NONE;
+        link(slot, cellIndex(entity.getX(), entity.getY()));
+    }
+
+    /**
+     * Xóa một thực thể khỏi chỉ mục (slot cuối được chuyển vào chỗ trống).
+     *
+     * @param entity Thực thể cần xóa.
+     */
+    public void remove(Entity entity) {
+        int slot = slotOf(entity);
+        if (slot == NONE) {
+            return;
+        }
+        unlink(slot);
+        int last = --slotCount;
+        if (slot != last) {
+            Entity moved = entities[last];
+            int cell = cellOf[last];
+            unlink(last);
+            entities[slot] = moved;
+            moved.occupancySlot = slot;
+            link(slot, cell);
+        }
+        entities[last] = null;
+        entity.occupancySlot = NONE;
+    }
+
+    /**
+     * Cập nhật ô của thực thể theo vị trí hiện tại của nó.
+     *
+     * @param entity Thực thể có thể vừa di chuyển.
+     */
+    public void sync(Entity entity) {
+        int slot = slotOf(entity);
+        if (slot == NONE) {
+            return;
+        }
+        int cell = cellIndex(entity.getX(), entity.getY());
+        if (cell != cellOf[slot]) {
+            unlink(slot);
+            link(slot, cell);
+        }
+    }
+
+    /**
+     * Kiểm tra xem ô (x, y) có thực thể còn sống nào khác ngoài except không.
+     *
+     * @param x      Tọa độ X.
+     * @param y      Tọa độ Y.
+     * @param except Thực thể được bỏ qua (thường là thực thể đang di chuyển), hoặc null.
+     * @return true nếu ô đang bị chiếm.
+     */
+    public boolean isOccupied(int x, int y, Entity except) {
+        int cell = cellIndex(x, y);
+        if (cell == NONE) {
+            return false;
+        }
+        for (int slot = head[cell]; slot != NONE; slot = next[slot]) {
+            Entity entity = entities[slot];
+            if (entity != except && entity.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void addBomb(int x, int y) {
+        int cell = cellIndex(x, y);
+        if (cell != NONE) {
+            bombCount[cell]++;
+        }
+    }
+
+    public void removeBomb(int x, int y) {
+        int cell = cellIndex(x, y);
+        if (cell != NONE && bombCount[cell] > 0) {
+            bombCount[cell]--;
+        }
+    }
+
+    /**
+     * Xóa toàn bộ bom (dùng khi danh sách bom được thay mới).
+     */
+    public void clearBombs() {
+        Arrays.fill(bombCount, 0);
+    }
+
+    public boolean hasBombAt(int x, int y) {
+        int cell = cellIndex(x, y);
+        return cell != NONE && bombCount[cell] > 0;
+    }
+
+    private int slotOf(Entity entity) {
+        int slot = entity.occupancySlot;
+        return slot >= 0 && slot < slotCount && entities[slot] == entity ? slot : NONE;
+    }
+
+    private void link(int slot, int cell) {
+        cellOf[slot] = cell;
+        prev[slot] = NONE;
+        if (cell == NONE) {
+            next[slot] = NONE;
+            return;
+        }
+        next[slot] = head[cell];
+        if (head[cell] != NONE) {
+            prev[head[cell]] = slot;
+        }
+        head[cell] = slot;
+    }
+
+    private void unlink(int slot) {
+        int cell = cellOf[slot];
+        if (cell == NONE) {
+            return;
+        }
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head[cell] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        }
+        cellOf[slot] = NONE;
+    }
+
+    private int cellIndex(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height ? x * height + y : NONE;
+    }
+}
@@ -1,18 +1,75 @@
-
-
-
 package ai;
 
 import java.util.*;
 
 /**
  * Lớp thực hiện thuật toán tìm đường đi (Pathfinding) sử dụng A*.
+ *
+ * Các ô được đánh chỉ số phẳng (x * height + y). Điểm g, ô cha và mức nguy hiểm được lưu trong các mảng
+ * cấp phát sẵn, kèm "generation stamp" để không phải xóa mảng giữa các lần tìm; tập mở là một heap có chỉ số
+ * hỗ trợ decrease-key. Nhờ đó một đối tượng Pathfinding có thể dùng lại cho nhiều lần tìm mà không tạo rác.
+ * Một đối tượng không được dùng đồng thời từ nhiều luồng.
+ *
+ * Người gọi có thể bật chế độ Jump Point Search (biến thể 4 hướng): các ô đối xứng trên hành lang thẳng được nhảy
+ * qua và chỉ các "điểm nhảy" được đưa vào tập mở. Mọi ô được quét khi nhảy phải có chi phí 1 (không bị bom hay
+ * Balloon khác đe dọa); chỉ khi quét phải một ô có nguy hiểm thì lần tìm đó mới quay về A* thông thường.
  */
 public class Pathfinding {
+    private static final int NO_PARENT = -1;
+    // Kết quả của Jump Point Search khi quét phải ô có chi phí khác 1
+    private static final int JUMP_ABORTED = -2;
+    // Các hướng di chuyển: Lên, Xuống, Trái, Phải
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
     private GameMap map;
+    private DistanceTable distanceTable;
+    private final int width;
+    private final int height;
+
+    // Trạng thái của A*, chỉ hợp lệ với ô có stamp[cell] == generation
+    private final double[] gScore;
+    private final int[] parent;
+    private final int[] stamp;
+    private final boolean[] closed;
+    // Mức nguy hiểm đã tính của mỗi ô trong lần tìm hiện tại, hợp lệ nếu dangerStamp[cell] == generation
+    private final double[] dangerCache;
+    private final int[] dangerStamp;
+    private final IndexedMinHeap openSet;
+    private int generation;
+    private boolean jumpPointSearch;
+    private int searchStartX;
+    private int searchStartY;
+    private int expandedCount;
 
     public Pathfinding(GameMap map) {
         this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        int cells = width * height;
+        this.gScore = new double[cells];
+        this.parent = new int[cells];
+        this.stamp = new int[cells];
+        this.closed = new boolean[cells];
+        this.dangerCache = new double[cells];
+        this.dangerStamp = new int[cells];
+        this.openSet = new IndexedMinHeap(cells);
+    }
+
+    /**
+     * Bật hoặc tắt chế độ Jump Point Search cho các lần tìm của đối tượng này (mặc định tắt).
+     *
+     * @param jumpPointSearch true để dùng Jump Point Search khi các ô được quét có chi phí đồng đều.
+     */
+    public void setJumpPointSearch(boolean jumpPointSearch) {
+        this.jumpPointSearch = jumpPointSearch;
+    }
+
+    /**
+     * Lấy số ô đã mở rộng trong lần tìm gần nhất.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
     }
 
     /**
@@ -27,59 +84,260 @@ public class Pathfinding {
      * @return Danh sách các bước đi từ vị trí bắt đầu đến đích
      */
     public List<int[]> findSafePath(int startX, int startY, int goalX, int goalY, Game game) {
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fScore));
-        Map<String, Node> allNodes = new HashMap<>();
+        PathfindingJfrEvent event = new PathfindingJfrEvent();
+        event.begin();
+        int goal = search(startX, startY, goalX, goalY, game);
+        if (event.shouldCommit()) {
+            event.startX = startX;
+            event.startY = startY;
+            event.goalX = goalX;
+            event.goalY = goalY;
+            event.expansions = expandedCount;
+            event.found = goal >= 0;
+            event.commit();
+        }
+        if (goal < 0) {
+            // Nếu không tìm được đường đi
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Không tìm thấy đường đi tới đích: ({}, {})", goalX, goalY);
+            }
+            return Collections.emptyList();
+        }
+        if (Log.DEBUG_ENABLED) {
+            Log.debug("Đã tìm thấy đường đi tới đích: ({}, {})", goalX, goalY);
+        }
+        return constructPath(goal);
+    }
 
-        Node start = new Node(startX, startY, null);
-        start.gScore = 0;
-        start.fScore = heuristicForPathfinding(startX, startY, goalX, goalY, game);
-        openSet.add(start);
-        allNodes.put(start.key(), start);
+    /**
+     * Tìm bước đi đầu tiên trên đường đi an toàn từ (startX, startY) đến (goalX, goalY).
+     * Không tạo danh sách đường đi nên không cấp phát bộ nhớ.
+     *
+     * @param startX Tọa độ X bắt đầu
+     * @param startY Tọa độ Y bắt đầu
+     * @param goalX  Tọa độ X đích
+     * @param goalY  Tọa độ Y đích
+     * @param game   Trạng thái hiện tại của trò chơi
+     * @return Chỉ số ô (x * height + y) của bước đầu tiên, hoặc -1 nếu không có đường đi
+     *         (hoặc đang đứng ở đích).
+     */
+    public int findNextStep(int startX, int startY, int goalX, int goalY, Game game) {
+        int goal = search(startX, startY, goalX, goalY, game);
+        if (goal < 0) {
+            return -1;
+        }
+        int start = startX * height + startY;
+        int cell = goal;
+        while (cell != start && parent[cell] != start) {
+            cell = parent[cell];
+        }
+        if (cell == start) {
+            return -1;
+        }
+        // Với Jump Point Search, ô cha có thể cách nhiều ô trên cùng hàng hoặc cột: bước đầu tiên là ô kề theo hướng đó
+        int dx = Integer.signum(cellX(cell) - startX);
+        int dy = Integer.signum(cellY(cell) - startY);
+        return (startX + dx) * height + startY + dy;
+    }
 
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-            System.out.println("Đang xử lý Node: (" + current.x + ", " + current.y + ")");
+    public int cellX(int cell) {
+        return cell / height;
+    }
 
-            if (current.x == goalX && current.y == goalY) {
-                System.out.println("Đã tìm thấy đường đi tới đích: (" + goalX + ", " + goalY + ")");
-                return constructPath(current);
-            }
+    public int cellY(int cell) {
+        return cell % height;
+    }
 
-            for (int[] dir : getDirections()) {
-                int newX = current.x + dir[0];
-                int newY = current.y + dir[1];
+    /**
+     * Thuật toán A* trên chỉ số phẳng.
+     *
+     * @return Chỉ số ô đích nếu tìm được đường đi, -1 nếu không.
+     */
+    private int search(int startX, int startY, int goalX, int goalY, Game game) {
+        if (!inBounds(startX, startY) || !inBounds(goalX, goalY)) {
+            return -1;
+        }
+        nextGeneration();
+        openSet.clear();
+        expandedCount = 0;
+        searchStartX = startX;
+        searchStartY = startY;
+
+        int start = startX * height + startY;
+        int goal = goalX * height + goalY;
+        // Bảng khoảng cách cho biết ngay đích có tới được không và là heuristic chặt hơn Manhattan
+        distanceTable = game.getDistanceTable();
+        if (distanceTable.distance(startX, startY, goalX, goalY) == DistanceTable.UNREACHABLE) {
+            return -1;
+        }
+        if (jumpPointSearch) {
+            int result = jumpPointSearch(start, goal, game);
+            if (result != JUMP_ABORTED) {
+                return result;
+            }
+            // Có ô nguy hiểm trên vùng đã quét: tìm lại bằng A* trên một thế hệ mới
+            nextGeneration();
+            openSet.clear();
+        }
+        visit(start, 0, NO_PARENT);
+        openSet.push(start, heuristicForPathfinding(startX, startY, goalX, goalY, game));
 
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            if (current == goal) {
+                return goal;
+            }
+            closed[current] = true;
+            expandedCount++;
+            int cx = current / height;
+            int cy = current - cx * height;
+
+            for (int d = 0; d < 4; d++) {
+                int newX = cx + DIR_X[d];
+                int newY = cy + DIR_Y[d];
                 if (!map.isWalkable(newX, newY)) {
-                    System.out.println("Không thể đi tới (" + newX + ", " + newY + ") - Ô không walkable.");
+                    continue;
+                }
+                int neighbor = newX * height + newY;
+                if (stamp[neighbor] == generation && closed[neighbor]) {
                     continue;
                 }
 
                 double danger = dangerFactor(newX, newY, game);
                 if (danger > 0.7) {
-                    System.out.println("Không thể đi tới (" + newX + ", " + newY + ") - Nguy hiểm cao: " + danger);
                     continue; // Tránh các vị trí có nguy hiểm cao
                 }
 
-                double tentativeGScore = current.gScore + distance(current.x, current.y, newX, newY) + danger;
-                String neighborKey = Node.key(newX, newY);
-                Node neighbor = allNodes.getOrDefault(neighborKey, new Node(newX, newY, current));
-
-                if (tentativeGScore < neighbor.gScore) {
-                    neighbor.parent = current;
-                    neighbor.gScore = tentativeGScore;
-                    neighbor.fScore = neighbor.gScore + heuristicForPathfinding(newX, newY, goalX, goalY, game) + danger;
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
-                        System.out.println("Thêm Node vào OpenSet: (" + newX + ", " + newY + ") với fScore: " + neighbor.fScore);
-                    }
-                    allNodes.put(neighborKey, neighbor);
+                double tentativeGScore = gScore[current] + 1 + danger;
+                if (stamp[neighbor] != generation || tentativeGScore < gScore[neighbor]) {
+                    visit(neighbor, tentativeGScore, current);
+                    double fScore = tentativeGScore + heuristicForPathfinding(newX, newY, goalX, goalY, game) + danger;
+                    openSet.push(neighbor, fScore); // Thêm mới hoặc decrease-key
                 }
             }
         }
+        return -1;
+    }
 
-        // Nếu không tìm được đường đi
-        System.out.println("Không tìm thấy đường đi tới đích: (" + goalX + ", " + goalY + ")");
-        return Collections.emptyList();
+    /**
+     * Jump Point Search 4 hướng trên lưới có chi phí đồng đều. Đi ngang chỉ dừng ở ô có hàng xóm bị ép
+     * (ô trên hoặc dưới vừa mở ra sau một vật cản); đi dọc dừng thêm ở ô mà từ đó một lần nhảy ngang tìm được điểm nhảy.
+     * Mọi chi phí của A* đều không nhỏ hơn 1, nên nếu mọi ô đã quét có chi phí đúng bằng 1 thì đường đi tìm được
+     * cũng là đường đi tốt nhất của A*, dù các ô chưa quét có bị đe dọa hay không.
+     *
+     * @return Chỉ số ô đích nếu tìm được đường đi, -1 nếu không, JUMP_ABORTED nếu đã quét phải ô có nguy hiểm.
+     */
+    private int jumpPointSearch(int start, int goal, Game game) {
+        int goalX = goal / height;
+        int goalY = goal - goalX * height;
+        visit(start, 0, NO_PARENT);
+        openSet.push(start, distanceTable.distance(start / height, start % height, goalX, goalY));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            if (current == goal) {
+                return goal;
+            }
+            closed[current] = true;
+            expandedCount++;
+            int cx = current / height;
+            int cy = current - cx * height;
+            int dx = 0;
+            int dy = 0;
+            if (parent[current] != NO_PARENT) {
+                dx = Integer.signum(cx - parent[current] / height);
+                dy = Integer.signum(cy - parent[current] % height);
+            }
+            for (int d = 0; d < 4; d++) {
+                int ndx = DIR_X[d];
+                int ndy = DIR_Y[d];
+                // Cắt tỉa: không quay ngược lại hướng vừa đi tới điểm nhảy
+                if (ndx == -dx && ndy == -dy && (dx != 0 || dy != 0)) {
+                    continue;
+                }
+                int jumpPoint = jump(cx + ndx, cy + ndy, ndx, ndy, goal, game);
+                if (jumpPoint == JUMP_ABORTED) {
+                    return JUMP_ABORTED;
+                }
+                if (jumpPoint < 0 || stamp[jumpPoint] == generation && closed[jumpPoint]) {
+                    continue;
+                }
+                int jx = jumpPoint / height;
+                int jy = jumpPoint - jx * height;
+                double tentativeGScore = gScore[current] + distance(cx, cy, jx, jy);
+                if (stamp[jumpPoint] != generation || tentativeGScore < gScore[jumpPoint]) {
+                    visit(jumpPoint, tentativeGScore, current);
+                    openSet.push(jumpPoint, tentativeGScore + distanceTable.distance(jx, jy, goalX, goalY));
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Nhảy từ (x, y) theo hướng (dx, dy) cho tới điểm nhảy tiếp theo.
+     *
+     * @return Chỉ số ô của điểm nhảy, -1 nếu gặp vật cản trước, hoặc JUMP_ABORTED nếu gặp ô có nguy hiểm.
+     */
+    private int jump(int x, int y, int dx, int dy, int goal, Game game) {
+        while (map.isWalkable(x, y)) {
+            int cell = x * height + y;
+            if (dangerFactor(x, y, game) > 0) {
+                return JUMP_ABORTED;
+            }
+            if (cell == goal) {
+                return cell;
+            }
+            if (dx != 0) {
+                // Hàng xóm bị ép phía trên hoặc phía dưới
+                if (map.isWalkable(x, y - 1) && !map.isWalkable(x - dx, y - 1)
+                        || map.isWalkable(x, y + 1) && !map.isWalkable(x - dx, y + 1)) {
+                    return cell;
+                }
+            } else {
+                if (map.isWalkable(x - 1, y) && !map.isWalkable(x - 1, y - dy)
+                        || map.isWalkable(x + 1, y) && !map.isWalkable(x + 1, y - dy)) {
+                    return cell;
+                }
+                // Khi đi dọc phải kiểm tra các điểm nhảy theo chiều ngang
+                int horizontal = jump(x + 1, y, 1, 0, goal, game);
+                if (horizontal == -1) {
+                    horizontal = jump(x - 1, y, -1, 0, goal, game);
+                }
+                if (horizontal == JUMP_ABORTED) {
+                    return JUMP_ABORTED;
+                }
+                if (horizontal >= 0) {
+                    return cell;
+                }
+            }
+            x += dx;
+            y += dy;
+        }
+        return -1;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            // Tràn số: xóa stamp để không nhầm với các lần tìm rất cũ
+            Arrays.fill(stamp, 0);
+            Arrays.fill(dangerStamp, 0);
+            generation = 1;
+        }
+    }
+
+    private void visit(int cell, double g, int parentCell) {
+        if (stamp[cell] != generation) {
+            stamp[cell] = generation;
+            closed[cell] = false;
+        }
+        gScore[cell] = g;
+        parent[cell] = parentCell;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
     }
 
     // Hàm tính khoảng cách Manhattan giữa hai điểm
@@ -89,8 +347,8 @@ public class Pathfinding {
 
     // Hàm heuristic cho thuật toán A* tính toán khoảng cách và mức độ nguy hiểm
     private double heuristicForPathfinding(int startX, int startY, int goalX, int goalY, Game game) {
-        // Tính toán khoảng cách Manhattan giữa điểm bắt đầu và điểm đích
-        double distanceToGoal = distance(startX, startY, goalX, goalY);
+        // Khoảng cách đường đi thật giữa điểm bắt đầu và điểm đích (tra bảng, không đi xuyên tường)
+        double distanceToGoal = distanceTable.distanceOrManhattan(startX, startY, goalX, goalY);
 
         // Tính mức độ nguy hiểm từ các yếu tố trong game (bom, Balloon, v.v.)
         double danger = dangerFactor(startX, startY, game);
@@ -99,24 +357,35 @@ public class Pathfinding {
         return distanceToGoal + danger;
     }
 
-    // Hàm đánh giá mức độ nguy hiểm tại vị trí (x, y)
+    // Hàm đánh giá mức độ nguy hiểm tại vị trí (x, y), được lưu lại trong suốt một lần tìm
     private double dangerFactor(int x, int y, Game game) {
+        int cell = x * height + y;
+        if (dangerStamp[cell] == generation) {
+            return dangerCache[cell];
+        }
         double danger = 0.0;
 
-        // Nguy hiểm từ bom
-        for (Bomb bomb : game.getBombs()) {
-            if (!bomb.isExploded()) {
+        // Nguy hiểm từ bom: chỉ duyệt các quả bom khi ô nằm trong vùng nổ (tra BlastMap), và chỉ cộng các quả bom
+        // có tia nổ thật sự đánh trúng ô; càng gần bom và càng gần lúc nổ càng nguy hiểm
+        BlastMap blastMap = game.getBlastMap();
+        if (blastMap.isInBlast(x, y)) {
+            List<Bomb> bombs = game.getBombs();
+            for (int i = 0; i < bombs.size(); i++) {
+                Bomb bomb = bombs.get(i);
+                if (bomb.isExploded() || !blastMap.covers(bomb, x, y)) continue;
                 int distance = Math.abs(bomb.getX() - x) + Math.abs(bomb.getY() - y);
-                if (distance <= bomb.getExplosionRange()) {
-                    double timeUntilExplosion = bomb.getCountdown() / 10.0;
-                    danger += (1.0 - ((double) distance / bomb.getExplosionRange())) / timeUntilExplosion;
-                }
+                double timeUntilExplosion = bomb.getCountdown() / 10.0;
+                double closeness = 1.0 - ((double) distance / bomb.getExplosionRange());
+                danger += timeUntilExplosion > 0 ? closeness / timeUntilExplosion : 1.0;
             }
         }
 
         // Nguy hiểm từ Balloon
-        for (Balloon balloon : game.getBalloons()) {
+        List<Balloon> balloons = game.getBalloons();
+        for (int i = 0; i < balloons.size(); i++) {
+            Balloon balloon = balloons.get(i);
             if (!balloon.isAlive()) continue;
+            if (balloon.getX() == searchStartX && balloon.getY() == searchStartY) continue; // Chính thực thể đang tìm đường
             int distance = Math.abs(balloon.getX() - x) + Math.abs(balloon.getY() - y);
             if (distance == 0) {
                 danger += 1.0;
@@ -127,70 +396,31 @@ public class Pathfinding {
             }
         }
 
-        return Math.min(danger, 1.0); // Đảm bảo giá trị nguy hiểm không vượt quá 1.0
+        danger = Math.min(danger, 1.0); // Đảm bảo giá trị nguy hiểm không vượt quá 1.0
+        dangerCache[cell] = danger;
+        dangerStamp[cell] = generation;
+        return danger;
     }
 
-    // Hàm xây dựng đường đi từ Node
-    private List<int[]> constructPath(Node node) {
+    // Hàm xây dựng đường đi từ ô đích (không gồm ô bắt đầu), điền các ô bị nhảy qua giữa hai điểm nhảy
+    private List<int[]> constructPath(int goal) {
         List<int[]> path = new ArrayList<>();
-        while (node.parent != null) {
-            path.add(new int[]{node.x, node.y});
-            node = node.parent;
+        int cell = goal;
+        while (parent[cell] != NO_PARENT) {
+            int x = cell / height;
+            int y = cell % height;
+            int px = parent[cell] / height;
+            int py = parent[cell] % height;
+            int dx = Integer.signum(px - x);
+            int dy = Integer.signum(py - y);
+            while (x != px || y != py) {
+                path.add(new int[]{x, y});
+                x += dx;
+                y += dy;
+            }
+            cell = parent[cell];
         }
         Collections.reverse(path);
         return path;
     }
-
-    // Các hướng di chuyển: Lên, Xuống, Trái, Phải
-    private int[][] getDirections() {
-        return new int[][]{
-                {0, -1}, // Lên
-                {0, 1},  // Xuống
-                {-1, 0}, // Trái
-                {1, 0}   // Phải
-        };
-    }
-
-    // Lớp Node nội bộ cho thuật toán A*
-    private static class Node {
-        int x, y;
-        Node parent;
-        double gScore = Double.MAX_VALUE;
-        double fScore = Double.MAX_VALUE;
-
-        Node(int x, int y, Node parent) {
-            this.x = x;
-            this.y = y;
-            this.parent = parent;
-        }
-
-        String key() {
-            return key(this.x, this.y);
-        }
-
-        static String key(int x, int y) {
-            return x + "," + y;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj instanceof Node) {
-                Node other = (Node) obj;
-                return this.x == other.x && this.y == other.y;
-            }
-            return false;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(x, y);
-        }
-    }
-
-    // Hàm đánh giá mức độ nguy hiểm từ bom, Balloon (giữ lại nếu cần thiết cho Minimax)
-    private boolean canPlaceBombNearPlayer(Node state) {
-        // Kiểm tra xem AI có thể đặt bom gần vị trí của người chơi không
-        // Logic kiểm tra vị trí xung quanh người chơi và xem có thể đặt bom hay không.
-        return false; // Placeholder: Cần thực hiện logic cụ thể cho việc kiểm tra bom
-    }
 }
@@ -0,0 +1,33 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sự kiện JFR cho một lần gọi Pathfinding.findSafePath().
+ */
+@Name("ai.Pathfinding")
+@Label("Pathfinding")
+@Category({"Bomberman", "Pathfinding"})
+@Description("Một lần tìm đường an toàn")
+class PathfindingJfrEvent extends jdk.jfr.Event {
+    @Label("Start X")
+    int startX;
+
+    @Label("Start Y")
+    int startY;
+
+    @Label("Goal X")
+    int goalX;
+
+    @Label("Goal Y")
+    int goalY;
+
+    @Label("Expanded Cells")
+    int expansions;
+
+    @Label("Found")
+    boolean found;
+}
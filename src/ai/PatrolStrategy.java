@@ -19,7 +19,7 @@ public class PatrolStrategy implements MovementStrategy {
     public void move(Entity entity, Game game) {
         if (patrolPath == null || patrolPath.isEmpty()) {
             // Nếu không có đường tuần tra, di chuyển ngẫu nhiên
-            new RandomMovementStrategy().move(entity, game);
+            new RandomMovementStrategy(game.getRandom().split()).move(entity, game);
             return;
         }
 
@@ -62,10 +62,16 @@ public class PatrolStrategy implements MovementStrategy {
             int newY = currentPosition[1] + dy;
             if (game.getGameMap().isWalkable(newX, newY)) {
                 game.moveEntity(entity, dx, dy);
-                System.out.println(entity.getClass().getSimpleName() + " đã di chuyển đến (" + newX + ", " + newY + ") theo đường tuần tra.");
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("{} đã di chuyển đến ({}, {}) theo đường tuần tra.",
+                            entity.getClass().getSimpleName(), newX, newY);
+                }
             } else {
                 // Nếu không thể di chuyển tới hướng đó, chuyển sang hành động ngẫu nhiên hoặc tiếp tục đường tuần tra
-                System.out.println(entity.getClass().getSimpleName() + " không thể di chuyển tới (" + newX + ", " + newY + "), cố gắng tiếp tục đường tuần tra.");
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("{} không thể di chuyển tới ({}, {}), cố gắng tiếp tục đường tuần tra.",
+                            entity.getClass().getSimpleName(), newX, newY);
+                }
                 patrolIndex = (patrolIndex + 1) % patrolPath.size(); // Chuyển sang vị trí tiếp theo
             }
         }
@@ -1,7 +1,6 @@
 
 package ai;
 import java.util.List;
-import javax.swing.JOptionPane;
 
 /**
  * Lớp đại diện cho người chơi trong trò chơi.
@@ -52,18 +51,15 @@ public class Player extends Entity implements Observer, Cloneable {
             // Check nếu bomb này do Player đặt
             if (explodedBomb.getOwner() == this) {
                 this.increaseBombCount();
-                System.out.println("Bom của Player đã nổ, tăng bombCount lên: "
-                        + this.getBombCount());
+                if (Log.DEBUG_ENABLED) {
+                    Log.debug("Bom của Player đã nổ, tăng bombCount lên: {}", getBombCount());
+                }
             }
 
             // Vẫn xử lý vụ Player có bị nổ không
-            List<int[]> explosionTiles = bombEvent.getExplosionTiles();
-            for (int[] tile : explosionTiles) {
-                if (this.getX() == tile[0] && this.getY() == tile[1]) {
-                    this.alive = false;
-                    System.out.println("Người chơi đã chết do bom nổ!");
-                    break;
-                }
+            if (bombEvent.isTileAffected(this.getX(), this.getY())) {
+                this.alive = false;
+                Log.info("Người chơi đã chết do bom nổ!");
             }
         }
     }
@@ -77,9 +73,11 @@ public class Player extends Entity implements Observer, Cloneable {
     public void increaseSpeed() {
         if (speed < 5) {
             speed++;
-            System.out.println("Tốc độ tăng lên: " + speed);
+            if (Log.INFO_ENABLED) {
+                Log.info("Tốc độ tăng lên: {}", speed);
+            }
         } else {
-            System.out.println("Tốc độ đã đạt mức tối đa.");
+            Log.info("Tốc độ đã đạt mức tối đa.");
         }
     }
 
@@ -97,7 +95,9 @@ public class Player extends Entity implements Observer, Cloneable {
      */
     public void increaseExplosionRange() {
         explosionRange++;
-        System.out.println("Phạm vi nổ tăng lên: " + explosionRange);
+        if (Log.INFO_ENABLED) {
+            Log.info("Phạm vi nổ tăng lên: {}", explosionRange);
+        }
     }
 
     /**
@@ -119,9 +119,11 @@ public class Player extends Entity implements Observer, Cloneable {
     public void setBombCount(int count) {
         if (count >= 0) { // Kiểm tra nếu count không âm
             this.bombCount = count;
-            System.out.println("Số lượng bom được đặt lại thành: " + bombCount);
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Số lượng bom được đặt lại thành: {}", bombCount);
+            }
         } else {
-            System.out.println("Số lượng bom không hợp lệ. Giá trị phải lớn hơn hoặc bằng 0.");
+            Log.warn("Số lượng bom không hợp lệ. Giá trị phải lớn hơn hoặc bằng 0.");
         }
     }
 
@@ -150,9 +152,11 @@ public class Player extends Entity implements Observer, Cloneable {
         if (gameMap.isWalkable(newX, newY)) {
             this.x = newX;
             this.y = newY;
-            System.out.println("Người chơi đã di chuyển đến (" + newX + ", " + newY + ").");
-        } else {
-            System.out.println("Người chơi không thể di chuyển đến (" + newX + ", " + newY + ").");
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Người chơi đã di chuyển đến ({}, {}).", newX, newY);
+            }
+        } else if (Log.DEBUG_ENABLED) {
+            Log.debug("Người chơi không thể di chuyển đến ({}, {}).", newX, newY);
         }
     }
 
@@ -165,9 +169,11 @@ public class Player extends Entity implements Observer, Cloneable {
         if (bombCount > 0) {
             game.placeBomb(this);
             bombCount--;
-            System.out.println("Đã đặt bom tại (" + this.x + ", " + this.y + "). Số lượng bom còn lại: " + bombCount);
+            if (Log.DEBUG_ENABLED) {
+                Log.debug("Đã đặt bom tại ({}, {}). Số lượng bom còn lại: {}", x, y, bombCount);
+            }
         } else {
-            System.out.println("Không còn bom để đặt.");
+            Log.debug("Không còn bom để đặt.");
         }
     }
 
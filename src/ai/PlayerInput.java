@@ -0,0 +1,14 @@
+package ai;
+
+/**
+ * Nguồn hành động cho người chơi khi trò chơi chạy không có giao diện (kịch bản cố định hoặc bot).
+ */
+public interface PlayerInput {
+    /**
+     * Chọn hành động của người chơi cho lượt hiện tại.
+     *
+     * @param game Trạng thái trò chơi hiện tại.
+     * @return Hành động cần thực hiện.
+     */
+    Action nextAction(Game game);
+}
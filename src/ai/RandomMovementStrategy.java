@@ -1,31 +1,40 @@
-
-
-
-
 package ai;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class RandomMovementStrategy implements MovementStrategy {
-    private Random rand = new Random();
+    private static final int[][] DIRECTIONS = {
+            {0, -1}, // Lên
+            {0, 1},  // Xuống
+            {-1, 0}, // Trái
+            {1, 0}   // Phải
+    };
+
+    private final SplittableRandom rand;
+    private final int[] order = {0, 1, 2, 3};
+
+    /**
+     * Constructor với bộ sinh số ngẫu nhiên cho trước (tách ra từ luồng số của Game để có thể tái lập).
+     *
+     * @param rand Bộ sinh số ngẫu nhiên.
+     */
+    public RandomMovementStrategy(SplittableRandom rand) {
+        this.rand = rand;
+    }
 
     @Override
     public void move(Entity entity, Game game) {
-        int[][] directions = {
-                {0, -1}, // Lên
-                {0, 1},  // Xuống
-                {-1, 0}, // Trái
-                {1, 0}   // Phải
-        };
-        List<int[]> dirList = Arrays.asList(directions);
-        Collections.shuffle(dirList, rand);
+        // Xáo trộn thứ tự hướng đi (Fisher-Yates) rồi đi theo hướng hợp lệ đầu tiên
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
         GameMap map = game.getGameMap();
-        for (int[] dir : dirList) {
-            int newX = entity.getX() + dir[0];
-            int newY = entity.getY() + dir[1];
+        for (int d : order) {
+            int newX = entity.getX() + DIRECTIONS[d][0];
+            int newY = entity.getY() + DIRECTIONS[d][1];
             if (map.isWalkable(newX, newY)) {
                 entity.setX(newX);
                 entity.setY(newY);
@@ -0,0 +1,63 @@
+package ai;
+
+/**
+ * Người chơi đi theo một kịch bản hành động cố định, lặp lại từ đầu khi hết kịch bản.
+ */
+public class ScriptedPlayerInput implements PlayerInput {
+    private final ActionType[] script;
+    private int index;
+
+    /**
+     * Constructor tạo kịch bản từ danh sách hành động.
+     *
+     * @param script Các hành động theo thứ tự (ít nhất một hành động).
+     */
+    public ScriptedPlayerInput(ActionType... script) {
+        if (script.length == 0) {
+            throw new IllegalArgumentException("Kịch bản phải có ít nhất một hành động");
+        }
+        this.script = script.clone();
+    }
+
+    /**
+     * Tạo kịch bản từ chuỗi ký tự: U (lên), D (xuống), L (trái), R (phải), B (đặt bom), S (đứng yên).
+     *
+     * @param keys Chuỗi ký tự hành động.
+     * @return Kịch bản tương ứng.
+     */
+    public static ScriptedPlayerInput parse(String keys) {
+        ActionType[] script = new ActionType[keys.length()];
+        for (int i = 0; i < keys.length(); i++) {
+            switch (Character.toUpperCase(keys.charAt(i))) {
+                case 'U':
+                    script[i] = ActionType.MOVE_UP;
+                    break;
+                case 'D':
+                    script[i] = ActionType.MOVE_DOWN;
+                    break;
+                case 'L':
+                    script[i] = ActionType.MOVE_LEFT;
+                    break;
+                case 'R':
+                    script[i] = ActionType.MOVE_RIGHT;
+                    break;
+                case 'B':
+                    script[i] = ActionType.PLACE_BOMB;
+                    break;
+                case 'S':
+                    script[i] = ActionType.STAY;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Ký tự hành động không hợp lệ: " + keys.charAt(i));
+            }
+        }
+        return new ScriptedPlayerInput(script);
+    }
+
+    @Override
+    public Action nextAction(Game game) {
+        ActionType actionType = script[index];
+        index = (index + 1) % script.length;
+        return new Action(actionType);
+    }
+}
@@ -0,0 +1,609 @@
+package ai;
+
+/**
+ * Trạng thái tìm kiếm có thể thay đổi dùng cho thuật toán Minimax theo kiểu make/unmake.
+ * Toàn bộ cây tìm kiếm đi trên một đối tượng duy nhất: apply() thực hiện một hành động,
+ * undo() hoàn tác hành động gần nhất. Mọi mảng được cấp phát sẵn nên mỗi Node không cấp phát bộ nhớ.
+ *
+ * Bản đồ được lưu dưới dạng các BitBoard có thêm một viền tường bao quanh, nên các truy vấn
+ * walkable, vùng nổ và số hướng đi chỉ là phép kiểm tra bit, không cần kiểm tra biên.
+ */
+public class SearchState {
+    private static final int BOMB_COUNTDOWN = 30;
+    private static final ActionType[] ACTIONS = ActionType.values();
+
+    private final int width;
+    private final int height;
+    private final int stride; // Số ô trên một cột của bản đồ có viền (height + 2)
+
+    // Các lớp bản đồ, chỉ số ô là cell(x, y)
+    private final BitBoard walls;             // Tường không phá hủy và viền
+    private final BitBoard destructibleWalls; // Tường phá hủy
+    private final BitBoard blocked;           // Hợp của hai lớp trên: các ô không đi được
+    private final BitBoard bombCells;         // Các ô đang có bom
+    // Vùng nổ của k quả bom đầu tiên nằm ở blastStack[k], nên việc hoàn tác bom chỉ là giảm chỉ số
+    private final BitBoard[] blastStack;
+    // Tương tự blastStack nhưng chỉ gồm bom không phải của Player
+    private final BitBoard[] aiBlastStack;
+
+    private int aiPlayerX;
+    private int aiPlayerY;
+    private int playerX;
+    private int playerY;
+    private int bombCount;
+    private final int explosionRange;
+    private int playerBombCount;
+    private final int playerExplosionRange;
+    private boolean aiTurn;
+    private boolean justPlacedBomb;
+
+    // Danh sách bom dạng mảng song song; bom đặt trong lúc tìm kiếm được thêm vào cuối
+    private final int[] bombX;
+    private final int[] bombY;
+    private final int[] bombRange;
+    private final int[] bombCountdown;
+    private final boolean[] bombByPlayer;
+    private int bombSize;
+
+    // Ngăn xếp hoàn tác: mỗi phần tử lưu hành động và cờ justPlacedBomb trước đó
+    private final int[] undoStack;
+    private int undoSize;
+
+    private final Zobrist zobrist;
+    private long zobristKey;
+    // Bản đồ không đổi trong lúc tìm kiếm nên khoảng cách đường đi được tra từ bảng của trò chơi
+    private final DistanceTable distanceTable;
+
+    /**
+     * Constructor tạo trạng thái tìm kiếm từ trạng thái hiện tại của trò chơi.
+     *
+     * @param game     Trạng thái trò chơi hiện tại.
+     * @param aiPlayer AIPlayer đang tìm kiếm nước đi.
+     * @param maxPly   Số lượt tối đa có thể được thực hiện liên tiếp bằng apply().
+     */
+    public SearchState(Game game, AIPlayer aiPlayer, int maxPly) {
+        GameMap map = game.getGameMap();
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.stride = height + 2;
+        int size = (width + 2) * stride;
+        this.walls = new BitBoard(size);
+        this.destructibleWalls = new BitBoard(size);
+        // GameMap.getTile() trả về '#' bên ngoài bản đồ nên viền cũng được đánh dấu là tường
+        for (int x = -1; x <= width; x++) {
+            for (int y = -1; y <= height; y++) {
+                char tile = map.getTile(x, y);
+                if (tile == '#') {
+                    walls.set(cell(x, y));
+                } else if (tile == 'D') {
+                    destructibleWalls.set(cell(x, y));
+                }
+            }
+        }
+        this.blocked = new BitBoard(walls);
+        blocked.or(destructibleWalls);
+        this.aiPlayerX = aiPlayer.getX();
+        this.aiPlayerY = aiPlayer.getY();
+        this.playerX = game.getPlayer().getX();
+        this.playerY = game.getPlayer().getY();
+        this.bombCount = aiPlayer.getBombCount();
+        this.explosionRange = aiPlayer.getExplosionRange();
+        this.playerBombCount = game.getPlayer().getBombCount();
+        this.playerExplosionRange = game.getPlayer().getExplosionRange();
+        this.aiTurn = true;
+
+        // Chỉ giữ các bom chưa nổ, bom đã nổ không còn ảnh hưởng tới đánh giá
+        int capacity = game.getBombs().size() + maxPly;
+        this.bombX = new int[capacity];
+        this.bombY = new int[capacity];
+        this.bombRange = new int[capacity];
+        this.bombCountdown = new int[capacity];
+        this.bombByPlayer = new boolean[capacity];
+        this.bombCells = new BitBoard(size);
+        this.blastStack = new BitBoard[capacity + 1];
+        this.aiBlastStack = new BitBoard[capacity + 1];
+        for (int i = 0; i <= capacity; i++) {
+            blastStack[i] = new BitBoard(size);
+            aiBlastStack[i] = new BitBoard(size);
+        }
+        for (Bomb bomb : game.getBombs()) {
+            if (!bomb.isExploded()) {
+                pushBomb(bomb.getX(), bomb.getY(), bomb.getExplosionRange(), bomb.getCountdown(),
+                        bomb.getOwner() instanceof Player);
+            }
+        }
+        this.undoStack = new int[maxPly];
+
+        this.zobrist = Zobrist.forSize(width, height);
+        this.zobristKey = computeZobristKey();
+        this.distanceTable = game.getDistanceTable();
+    }
+
+    /**
+     * Constructor sao chép, dùng khi nhiều luồng tìm kiếm trên các nhánh khác nhau.
+     * Bản đồ không thay đổi trong lúc tìm kiếm nên được dùng chung; bom và ngăn xếp hoàn tác được sao chép.
+     *
+     * @param other Trạng thái cần sao chép (không được có hành động chưa hoàn tác).
+     */
+    public SearchState(SearchState other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.stride = other.stride;
+        this.walls = other.walls;
+        this.destructibleWalls = other.destructibleWalls;
+        this.blocked = other.blocked;
+        this.bombCells = new BitBoard(other.bombCells);
+        this.blastStack = new BitBoard[other.blastStack.length];
+        this.aiBlastStack = new BitBoard[other.aiBlastStack.length];
+        for (int i = 0; i < blastStack.length; i++) {
+            blastStack[i] = new BitBoard(other.blastStack[i]);
+            aiBlastStack[i] = new BitBoard(other.aiBlastStack[i]);
+        }
+        this.aiPlayerX = other.aiPlayerX;
+        this.aiPlayerY = other.aiPlayerY;
+        this.playerX = other.playerX;
+        this.playerY = other.playerY;
+        this.bombCount = other.bombCount;
+        this.explosionRange = other.explosionRange;
+        this.playerBombCount = other.playerBombCount;
+        this.playerExplosionRange = other.playerExplosionRange;
+        this.aiTurn = other.aiTurn;
+        this.justPlacedBomb = other.justPlacedBomb;
+        this.bombX = other.bombX.clone();
+        this.bombY = other.bombY.clone();
+        this.bombRange = other.bombRange.clone();
+        this.bombCountdown = other.bombCountdown.clone();
+        this.bombByPlayer = other.bombByPlayer.clone();
+        this.bombSize = other.bombSize;
+        this.undoStack = new int[other.undoStack.length];
+        this.zobrist = other.zobrist;
+        this.zobristKey = other.zobristKey;
+        this.distanceTable = other.distanceTable;
+    }
+
+    /**
+     * Thực hiện một hành động cho bên đang đến lượt và chuyển lượt.
+     * Hai bên không được đi vào ô của nhau, giống Game.isValidMove().
+     *
+     * @param actionType Hành động cần thực hiện.
+     * @return true nếu hành động hợp lệ và đã được thực hiện, false nếu không (trạng thái giữ nguyên).
+     */
+    public boolean apply(ActionType actionType) {
+        if (aiTurn) {
+            switch (actionType) {
+                case MOVE_UP:
+                    if (!moveAi(aiPlayerX, aiPlayerY - 1)) return false;
+                    break;
+                case MOVE_DOWN:
+                    if (!moveAi(aiPlayerX, aiPlayerY + 1)) return false;
+                    break;
+                case MOVE_LEFT:
+                    if (!moveAi(aiPlayerX - 1, aiPlayerY)) return false;
+                    break;
+                case MOVE_RIGHT:
+                    if (!moveAi(aiPlayerX + 1, aiPlayerY)) return false;
+                    break;
+                case PLACE_BOMB:
+                    // Đặt bom tại vị trí hiện tại của AIPlayer
+                    if (bombCount <= 0 || !isWalkable(aiPlayerX, aiPlayerY) || bombCells.get(cell(aiPlayerX, aiPlayerY))) {
+                        return false;
+                    }
+                    pushBomb(aiPlayerX, aiPlayerY, explosionRange, BOMB_COUNTDOWN, false);
+                    zobristKey ^= zobrist.bombAt(aiPlayerX, aiPlayerY);
+                    setBombCount(bombCount - 1);
+                    break;
+                case STAY:
+                    break;
+            }
+        } else {
+            switch (actionType) {
+                case MOVE_UP:
+                    if (!movePlayer(playerX, playerY - 1)) return false;
+                    break;
+                case MOVE_DOWN:
+                    if (!movePlayer(playerX, playerY + 1)) return false;
+                    break;
+                case MOVE_LEFT:
+                    if (!movePlayer(playerX - 1, playerY)) return false;
+                    break;
+                case MOVE_RIGHT:
+                    if (!movePlayer(playerX + 1, playerY)) return false;
+                    break;
+                case PLACE_BOMB:
+                    // Đặt bom tại vị trí hiện tại của Player
+                    if (playerBombCount <= 0 || bombCells.get(cell(playerX, playerY))) {
+                        return false;
+                    }
+                    pushBomb(playerX, playerY, playerExplosionRange, BOMB_COUNTDOWN, true);
+                    zobristKey ^= zobrist.bombAt(playerX, playerY) ^ zobrist.playerBombAt(playerX, playerY);
+                    setPlayerBombCount(playerBombCount - 1);
+                    break;
+                case STAY:
+                    break;
+            }
+        }
+
+        undoStack[undoSize++] = actionType.ordinal() | (justPlacedBomb ? 8 : 0);
+        if (aiTurn && actionType == ActionType.PLACE_BOMB) {
+            setJustPlacedBomb(true);
+        }
+        aiTurn = !aiTurn;
+        zobristKey ^= zobrist.aiTurn();
+        return true;
+    }
+
+    /**
+     * Hoàn tác hành động gần nhất được thực hiện bằng apply().
+     */
+    public void undo() {
+        int record = undoStack[--undoSize];
+        ActionType actionType = ACTIONS[record & 7];
+        aiTurn = !aiTurn;
+        zobristKey ^= zobrist.aiTurn();
+        setJustPlacedBomb((record & 8) != 0);
+        if (!aiTurn) {
+            undoPlayer(actionType);
+            return;
+        }
+        switch (actionType) {
+            case MOVE_UP:
+                setAiPosition(aiPlayerX, aiPlayerY + 1);
+                break;
+            case MOVE_DOWN:
+                setAiPosition(aiPlayerX, aiPlayerY - 1);
+                break;
+            case MOVE_LEFT:
+                setAiPosition(aiPlayerX + 1, aiPlayerY);
+                break;
+            case MOVE_RIGHT:
+                setAiPosition(aiPlayerX - 1, aiPlayerY);
+                break;
+            case PLACE_BOMB:
+                bombSize--;
+                bombCells.clear(cell(bombX[bombSize], bombY[bombSize]));
+                zobristKey ^= zobrist.bombAt(bombX[bombSize], bombY[bombSize]);
+                setBombCount(bombCount + 1);
+                break;
+            case STAY:
+                break;
+        }
+    }
+
+    private void undoPlayer(ActionType actionType) {
+        switch (actionType) {
+            case MOVE_UP:
+                setPlayerPosition(playerX, playerY + 1);
+                break;
+            case MOVE_DOWN:
+                setPlayerPosition(playerX, playerY - 1);
+                break;
+            case MOVE_LEFT:
+                setPlayerPosition(playerX + 1, playerY);
+                break;
+            case MOVE_RIGHT:
+                setPlayerPosition(playerX - 1, playerY);
+                break;
+            case PLACE_BOMB:
+                bombSize--;
+                bombCells.clear(cell(bombX[bombSize], bombY[bombSize]));
+                zobristKey ^= zobrist.bombAt(bombX[bombSize], bombY[bombSize])
+                        ^ zobrist.playerBombAt(bombX[bombSize], bombY[bombSize]);
+                setPlayerBombCount(playerBombCount + 1);
+                break;
+            case STAY:
+                break;
+        }
+    }
+
+    private boolean moveAi(int newX, int newY) {
+        if (!isWalkable(newX, newY) || (newX == playerX && newY == playerY)) {
+            return false;
+        }
+        setAiPosition(newX, newY);
+        return true;
+    }
+
+    private boolean movePlayer(int newX, int newY) {
+        if (!isWalkable(newX, newY) || (newX == aiPlayerX && newY == aiPlayerY)) {
+            return false;
+        }
+        setPlayerPosition(newX, newY);
+        return true;
+    }
+
+    private void setAiPosition(int newX, int newY) {
+        zobristKey ^= zobrist.aiPosition(aiPlayerX, aiPlayerY) ^ zobrist.aiPosition(newX, newY);
+        aiPlayerX = newX;
+        aiPlayerY = newY;
+    }
+
+    private void setPlayerPosition(int newX, int newY) {
+        zobristKey ^= zobrist.playerPosition(playerX, playerY) ^ zobrist.playerPosition(newX, newY);
+        playerX = newX;
+        playerY = newY;
+    }
+
+    private void setPlayerBombCount(int newPlayerBombCount) {
+        zobristKey ^= zobrist.playerBombCount(playerBombCount) ^ zobrist.playerBombCount(newPlayerBombCount);
+        playerBombCount = newPlayerBombCount;
+    }
+
+    private void setBombCount(int newBombCount) {
+        zobristKey ^= zobrist.bombCount(bombCount) ^ zobrist.bombCount(newBombCount);
+        bombCount = newBombCount;
+    }
+
+    private void setJustPlacedBomb(boolean newJustPlacedBomb) {
+        if (justPlacedBomb != newJustPlacedBomb) {
+            zobristKey ^= zobrist.justPlacedBomb();
+        }
+        justPlacedBomb = newJustPlacedBomb;
+    }
+
+    private void pushBomb(int x, int y, int range, int countdown, boolean byPlayer) {
+        bombX[bombSize] = x;
+        bombY[bombSize] = y;
+        bombRange[bombSize] = range;
+        bombCountdown[bombSize] = countdown;
+        bombByPlayer[bombSize] = byPlayer;
+        bombCells.set(cell(x, y));
+
+        // Vùng nổ mới = vùng nổ cũ + các ô của quả bom này (giống Game.getExplosionTiles)
+        BitBoard blast = blastStack[bombSize + 1];
+        blast.copyFrom(blastStack[bombSize]);
+        int origin = cell(x, y);
+        markCross(blast, origin, range);
+        BitBoard aiBlast = aiBlastStack[bombSize + 1];
+        aiBlast.copyFrom(aiBlastStack[bombSize]);
+        if (!byPlayer) {
+            markCross(aiBlast, origin, range);
+        }
+        bombSize++;
+    }
+
+    private void markCross(BitBoard blast, int origin, int range) {
+        blast.set(origin);
+        markRay(blast, origin, -1, range);      // Lên
+        markRay(blast, origin, 1, range);       // Xuống
+        markRay(blast, origin, -stride, range); // Trái
+        markRay(blast, origin, stride, range);  // Phải
+    }
+
+    private void markRay(BitBoard blast, int origin, int step, int range) {
+        int index = origin;
+        for (int i = 1; i <= range; i++) {
+            index += step;
+            if (walls.get(index)) {
+                break; // Gặp tường không phá hủy, ngừng lan
+            }
+            blast.set(index);
+            if (destructibleWalls.get(index)) {
+                break; // Gặp tường phá hủy, ngừng lan sau ô này
+            }
+        }
+    }
+
+    private int cell(int x, int y) {
+        return (x + 1) * stride + (y + 1);
+    }
+
+    /**
+     * Kiểm tra xem ô (x, y) có walkable không.
+     *
+     * @param x Tọa độ X.
+     * @param y Tọa độ Y.
+     * @return true nếu ô nằm trong bản đồ và là ô trống.
+     */
+    public boolean isWalkable(int x, int y) {
+        return x >= -1 && x <= width && y >= -1 && y <= height && !blocked.get(cell(x, y));
+    }
+
+    /**
+     * Đếm số ô kề walkable của ô (x, y). Nhờ viền tường, bốn phép kiểm tra bit không cần kiểm tra biên.
+     *
+     * @param x Tọa độ X (nằm trong bản đồ).
+     * @param y Tọa độ Y (nằm trong bản đồ).
+     * @return Số hướng đi khả thi (0-4).
+     */
+    public int countWalkableNeighbours(int x, int y) {
+        int index = cell(x, y);
+        return (blocked.get(index - 1) ? 0 : 1)
+                + (blocked.get(index + 1) ? 0 : 1)
+                + (blocked.get(index - stride) ? 0 : 1)
+                + (blocked.get(index + stride) ? 0 : 1);
+    }
+
+    /**
+     * Kiểm tra xem ô (x, y) có nằm trong vùng nổ của một quả bom chưa nổ không (tính cả tường chắn).
+     *
+     * @param x Tọa độ X (nằm trong bản đồ).
+     * @param y Tọa độ Y (nằm trong bản đồ).
+     * @return true nếu ô bị vụ nổ ảnh hưởng.
+     */
+    public boolean isInBlast(int x, int y) {
+        return blastStack[bombSize].get(cell(x, y));
+    }
+
+    /**
+     * Kiểm tra xem ô (x, y) có nằm trong vùng nổ của một quả bom không phải của Player không.
+     *
+     * @param x Tọa độ X (nằm trong bản đồ).
+     * @param y Tọa độ Y (nằm trong bản đồ).
+     * @return true nếu ô bị vụ nổ của bom đó ảnh hưởng.
+     */
+    public boolean isInAiBlast(int x, int y) {
+        return aiBlastStack[bombSize].get(cell(x, y));
+    }
+
+    /**
+     * Lấy độ dài đường đi ngắn nhất giữa AIPlayer và Player, hoặc khoảng cách Manhattan nếu không có đường đi
+     * (bị tường phá hủy ngăn cách).
+     */
+    public int getPlayerDistance() {
+        return distanceTable.distanceOrManhattan(aiPlayerX, aiPlayerY, playerX, playerY);
+    }
+
+    /**
+     * Kiểm tra xem bom Player đặt ở vị trí hiện tại có thể ảnh hưởng tới AIPlayer trong số lượt còn lại không.
+     * Bom trong SearchState không nổ và không chặn đường, nên ảnh hưởng duy nhất của nó lên hàm đánh giá là vùng nổ
+     * quanh ô của Player. Vùng nổ nằm trong khoảng cách Manhattan playerExplosionRange, còn AIPlayer đi được
+     * không quá remainingPlies bước; nếu tổng hai khoảng này nhỏ hơn khoảng cách Manhattan thì AIPlayer không bao giờ
+     * đứng trong vùng nổ. Khi đó đặt bom chỉ làm Player mất một quả bom, nên giá trị của nó không nhỏ hơn
+     * giá trị của đứng yên và có thể bỏ qua ở Node Min mà không đổi kết quả Minimax.
+     *
+     * @param remainingPlies Số lượt còn lại của cây tìm kiếm, tính cả lượt hiện tại.
+     * @return true nếu bom của Player có thể ảnh hưởng tới AIPlayer.
+     */
+    public boolean canPlayerBombReachAi(int remainingPlies) {
+        int distance = Math.abs(aiPlayerX - playerX) + Math.abs(aiPlayerY - playerY);
+        return distance <= remainingPlies + playerExplosionRange;
+    }
+
+    private long computeZobristKey() {
+        long key = zobrist.aiPosition(aiPlayerX, aiPlayerY)
+                ^ zobrist.playerPosition(playerX, playerY)
+                ^ zobrist.bombCount(bombCount)
+                ^ zobrist.playerBombCount(playerBombCount);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (destructibleWalls.get(cell(x, y))) {
+                    key ^= zobrist.destructibleWallAt(x, y);
+                }
+            }
+        }
+        for (int i = 0; i < bombSize; i++) {
+            key ^= zobrist.bombAt(bombX[i], bombY[i]);
+            if (bombByPlayer[i]) {
+                key ^= zobrist.playerBombAt(bombX[i], bombY[i]);
+            }
+        }
+        if (aiTurn) {
+            key ^= zobrist.aiTurn();
+        }
+        if (justPlacedBomb) {
+            key ^= zobrist.justPlacedBomb();
+        }
+        return key;
+    }
+
+    // Getter cho các thuộc tính, không sao chép dữ liệu
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getAiPlayerX() {
+        return aiPlayerX;
+    }
+
+    public int getAiPlayerY() {
+        return aiPlayerY;
+    }
+
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    public int getBombCount() {
+        return bombCount;
+    }
+
+    public int getExplosionRange() {
+        return explosionRange;
+    }
+
+    public boolean isAiTurn() {
+        return aiTurn;
+    }
+
+    public boolean hasJustPlacedBomb() {
+        return justPlacedBomb;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Lấy tầng hiện tại của cây tìm kiếm (số hành động chưa được hoàn tác).
+     *
+     * @return Tầng hiện tại.
+     */
+    public int getPly() {
+        return undoSize;
+    }
+
+    public int getMaxPly() {
+        return undoStack.length;
+    }
+
+    public int getBombSize() {
+        return bombSize;
+    }
+
+    public int getBombX(int index) {
+        return bombX[index];
+    }
+
+    public int getBombY(int index) {
+        return bombY[index];
+    }
+
+    public int getBombRange(int index) {
+        return bombRange[index];
+    }
+
+    public int getBombCountdown(int index) {
+        return bombCountdown[index];
+    }
+
+    public boolean isPlayerBomb(int index) {
+        return bombByPlayer[index];
+    }
+
+    /**
+     * Kiểm tra xem tia nổ của quả bom thứ index có đánh trúng ô (x, y) không (tính cả tường chắn như markRay).
+     *
+     * @param index Chỉ số quả bom.
+     * @param x     Tọa độ X (nằm trong bản đồ).
+     * @param y     Tọa độ Y (nằm trong bản đồ).
+     * @return true nếu ô nằm trong vùng nổ của quả bom.
+     */
+    public boolean bombCovers(int index, int x, int y) {
+        int bx = bombX[index];
+        int by = bombY[index];
+        if (x != bx && y != by) {
+            return false;
+        }
+        int length = Math.abs(x - bx) + Math.abs(y - by);
+        int target = cell(x, y);
+        if (length > bombRange[index] || (length > 0 && walls.get(target))) {
+            return false;
+        }
+        int step = x != bx ? Integer.signum(x - bx) * stride : Integer.signum(y - by);
+        int cursor = cell(bx, by);
+        for (int i = 1; i < length; i++) {
+            cursor += step;
+            if (blocked.get(cursor)) {
+                return false; // Tường nằm giữa bom và ô chặn tia nổ
+            }
+        }
+        return true;
+    }
+
+    public int getPlayerBombCount() {
+        return playerBombCount;
+    }
+
+    public int getPlayerExplosionRange() {
+        return playerExplosionRange;
+    }
+}
@@ -0,0 +1,248 @@
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Thống kê của tìm kiếm Minimax: số Node, số lá được đánh giá, cắt tỉa (ở nước đi đầu tiên hay nước sau),
+ * số lần tra bảng chuyển vị, hệ số phân nhánh hiệu dụng và thời gian của từng lần lặp Iterative Deepening.
+ *
+ * Một đối tượng mô tả một lượt (MinimaxStrategy.getLastSearchStats()) hoặc tổng của nhiều lượt được cộng dồn
+ * bằng add() (MinimaxStrategy.getGameSearchStats()). Mỗi luồng tìm kiếm đếm vào đối tượng riêng rồi được cộng lại
+ * sau lượt, nên các bộ đếm không cần đồng bộ.
+ */
+public class SearchStats {
+    private int searches;
+    private long nodes;
+    private long leafEvaluations;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long ttProbes;
+    private long ttHits;
+    private long ttCutoffs;
+    private long totalNanos;
+    private int completedDepthSum;
+    // Theo độ sâu của lần lặp: số Node, thời gian và số lần lặp đã hoàn thành ở độ sâu đó
+    private long[] iterationNodes = new long[0];
+    private long[] iterationNanos = new long[0];
+    private int[] iterationCount = new int[0];
+    // Tổng hệ số phân nhánh hiệu dụng của các lượt đã tính được hệ số này
+    private double branchingFactorSum;
+    private int branchingFactorCount;
+
+    void countLeaf() {
+        leafEvaluations++;
+    }
+
+    void countProbe(boolean hit) {
+        ttProbes++;
+        if (hit) {
+            ttHits++;
+        }
+    }
+
+    void countTableCutoff() {
+        ttCutoffs++;
+    }
+
+    /**
+     * Ghi nhận một cắt tỉa alpha-beta.
+     *
+     * @param moveIndex Thứ tự (từ 0) của nước đi gây cắt tỉa trong các nước đi hợp lệ đã duyệt.
+     */
+    void countCutoff(int moveIndex) {
+        cutoffs++;
+        if (moveIndex == 0) {
+            firstMoveCutoffs++;
+        }
+    }
+
+    /**
+     * Ghi nhận một lần lặp đã hoàn thành.
+     */
+    void addIteration(int depth, long iterationNodeCount, long nanos) {
+        ensureDepth(depth);
+        iterationNodes[depth] += iterationNodeCount;
+        iterationNanos[depth] += nanos;
+        iterationCount[depth]++;
+    }
+
+    /**
+     * Kết thúc thống kê của một lượt.
+     *
+     * @param nodeCount      Tổng số Node của lượt (mọi lần lặp, kể cả lần bị dừng vì hết giờ).
+     * @param completedDepth Độ sâu của lần lặp hoàn chỉnh cuối cùng.
+     * @param nanos          Thời gian của cả lượt.
+     */
+    void finishSearch(long nodeCount, int completedDepth, long nanos) {
+        searches = 1;
+        nodes = nodeCount;
+        completedDepthSum = completedDepth;
+        totalNanos = nanos;
+        double branchingFactor = computeBranchingFactor(completedDepth);
+        if (branchingFactor > 0) {
+            branchingFactorSum = branchingFactor;
+            branchingFactorCount = 1;
+        }
+    }
+
+    /**
+     * Cộng các bộ đếm của luồng tìm kiếm khác (hoặc của một lượt khác) vào đối tượng này.
+     *
+     * @param other Thống kê cần cộng vào.
+     */
+    public void add(SearchStats other) {
+        searches += other.searches;
+        nodes += other.nodes;
+        leafEvaluations += other.leafEvaluations;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        ttProbes += other.ttProbes;
+        ttHits += other.ttHits;
+        ttCutoffs += other.ttCutoffs;
+        totalNanos += other.totalNanos;
+        completedDepthSum += other.completedDepthSum;
+        ensureDepth(other.iterationNodes.length - 1);
+        for (int depth = 0; depth < other.iterationNodes.length; depth++) {
+            iterationNodes[depth] += other.iterationNodes[depth];
+            iterationNanos[depth] += other.iterationNanos[depth];
+            iterationCount[depth] += other.iterationCount[depth];
+        }
+        branchingFactorSum += other.branchingFactorSum;
+        branchingFactorCount += other.branchingFactorCount;
+    }
+
+    public int getSearches() {
+        return searches;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    public long getLaterMoveCutoffs() {
+        return cutoffs - firstMoveCutoffs;
+    }
+
+    public long getTranspositionProbes() {
+        return ttProbes;
+    }
+
+    public long getTranspositionHits() {
+        return ttHits;
+    }
+
+    public long getTranspositionCutoffs() {
+        return ttCutoffs;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Tỉ lệ cắt tỉa xảy ra ở nước đi đầu tiên, thước đo chất lượng sắp xếp nước đi (càng gần 1 càng tốt).
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    public double getTranspositionHitRate() {
+        return ttProbes == 0 ? 0.0 : (double) ttHits / ttProbes;
+    }
+
+    public double getNodesPerSecond() {
+        return totalNanos == 0 ? 0.0 : nodes * 1e9 / totalNanos;
+    }
+
+    /**
+     * Độ sâu hoàn chỉnh trung bình mỗi lượt.
+     */
+    public double getAverageCompletedDepth() {
+        return searches == 0 ? 0.0 : (double) completedDepthSum / searches;
+    }
+
+    /**
+     * Hệ số phân nhánh hiệu dụng: số Node của lần lặp cuối chia cho số Node của lần lặp trước đó,
+     * hoặc căn bậc d của số Node khi chỉ có một lần lặp ở độ sâu d (trung bình theo lượt khi được cộng dồn).
+     */
+    public double getEffectiveBranchingFactor() {
+        return branchingFactorCount == 0 ? 0.0 : branchingFactorSum / branchingFactorCount;
+    }
+
+    /**
+     * Số lần lặp đã hoàn thành ở độ sâu cho trước.
+     */
+    public int getIterationCount(int depth) {
+        return depth < iterationCount.length ? iterationCount[depth] : 0;
+    }
+
+    /**
+     * Số Node trung bình của một lần lặp ở độ sâu cho trước.
+     */
+    public double getAverageIterationNodes(int depth) {
+        int count = getIterationCount(depth);
+        return count == 0 ? 0.0 : (double) iterationNodes[depth] / count;
+    }
+
+    /**
+     * Thời gian trung bình (ms) của một lần lặp ở độ sâu cho trước.
+     */
+    public double getAverageIterationMillis(int depth) {
+        int count = getIterationCount(depth);
+        return count == 0 ? 0.0 : iterationNanos[depth] / 1e6 / count;
+    }
+
+    public int getMaxIterationDepth() {
+        return iterationCount.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d lượt, %d Node (%.0f Node/giây), %d lá, độ sâu TB %.2f, EBF %.2f%n",
+                searches, nodes, getNodesPerSecond(), leafEvaluations, getAverageCompletedDepth(),
+                getEffectiveBranchingFactor()));
+        sb.append(String.format("cắt tỉa %d (nước đầu %.1f%%, nước sau %d), bảng chuyển vị %d/%d trúng (%.1f%%), %d cắt%n",
+                cutoffs, getFirstMoveCutoffRate() * 100, getLaterMoveCutoffs(), ttHits, ttProbes,
+                getTranspositionHitRate() * 100, ttCutoffs));
+        for (int depth = 1; depth < iterationCount.length; depth++) {
+            if (iterationCount[depth] > 0) {
+                sb.append(String.format("  độ sâu %d: %d lần, %.1f Node, %.3f ms%n", depth, iterationCount[depth],
+                        getAverageIterationNodes(depth), getAverageIterationMillis(depth)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private double computeBranchingFactor(int completedDepth) {
+        if (completedDepth < 1 || completedDepth >= iterationNodes.length || iterationNodes[completedDepth] == 0) {
+            return 0.0;
+        }
+        long previous = iterationNodes[completedDepth - 1];
+        if (previous == 0) {
+            return Math.pow(iterationNodes[completedDepth], 1.0 / completedDepth);
+        }
+        return (double) iterationNodes[completedDepth] / previous;
+    }
+
+    private void ensureDepth(int depth) {
+        if (depth < iterationNodes.length) {
+            return;
+        }
+        iterationNodes = Arrays.copyOf(iterationNodes, depth + 1);
+        iterationNanos = Arrays.copyOf(iterationNanos, depth + 1);
+        iterationCount = Arrays.copyOf(iterationCount, depth + 1);
+    }
+}
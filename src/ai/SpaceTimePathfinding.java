@@ -0,0 +1,323 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tìm đường theo không gian - thời gian (Safe Interval Path Planning) trên các trạng thái (ô, lượt).
+ *
+ * Một ô chỉ bị chặn đúng vào các lượt mà tia nổ đi qua nó (lấy từ BlastMap), nên thời gian còn lại của ô
+ * được chia thành các khoảng an toàn. Mỗi trạng thái tìm kiếm là một cặp (ô, khoảng an toàn); với mỗi cặp
+ * chỉ giữ lượt tới sớm nhất vì tới sớm hơn luôn trội hơn tới muộn (có thể đứng chờ trong cùng khoảng).
+ * Khác với A* có trọng số nguy hiểm, thuật toán có thể đứng chờ cho bom nổ xong rồi đi qua ô đó.
+ *
+ * Các mảng được cấp phát một lần và đánh dấu bằng generation stamp, một đối tượng không được dùng
+ * đồng thời từ nhiều luồng.
+ */
+public class SpaceTimePathfinding {
+    // Số khoảng an toàn tối đa của một ô; các lần nổ vượt quá được gộp lại (ô bị coi là nguy hiểm cả quãng giữa)
+    private static final int MAX_INTERVALS = 8;
+    private static final int INFINITE = Integer.MAX_VALUE;
+    private static final int NO_PARENT = -1;
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
+    private final int width;
+    private final int height;
+
+    // Các khoảng an toàn của mỗi ô, hợp lệ nếu intervalStamp[cell] == generation
+    private final int[] intervalCount;
+    private final int[] intervalBegin;
+    private final int[] intervalEnd;
+    private final int[] intervalStamp;
+    // Trạng thái (ô, khoảng) có chỉ số cell * MAX_INTERVALS + khoảng
+    private final int[] arrival;
+    private final int[] parent;
+    private final int[] stateStamp;
+    private final boolean[] closed;
+    private final IndexedMinHeap openSet;
+    private int generation;
+
+    // Kết quả của lần tìm gần nhất
+    private int ticksPerStep = 1; // Số lượt cho một bước của thực thể trong lần tìm
+    private int startState = NO_PARENT;
+    private int goalState = NO_PARENT;
+    private int expandedStates;
+
+    /**
+     * Constructor tạo bộ tìm đường cho bản đồ có kích thước (width, height).
+     *
+     * @param width  Chiều rộng bản đồ.
+     * @param height Chiều cao bản đồ.
+     */
+    public SpaceTimePathfinding(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        int states = cells * MAX_INTERVALS;
+        this.intervalCount = new int[cells];
+        this.intervalBegin = new int[states];
+        this.intervalEnd = new int[states];
+        this.intervalStamp = new int[cells];
+        this.arrival = new int[states];
+        this.parent = new int[states];
+        this.stateStamp = new int[states];
+        this.closed = new boolean[states];
+        this.openSet = new IndexedMinHeap(states);
+    }
+
+    /**
+     * Tìm đường tới (goalX, goalY) sớm nhất mà không đứng trên ô nào vào đúng lượt nó bị nổ.
+     *
+     * @param game         Trạng thái hiện tại của trò chơi
+     * @param startX       Tọa độ X bắt đầu
+     * @param startY       Tọa độ Y bắt đầu
+     * @param goalX        Tọa độ X đích
+     * @param goalY        Tọa độ Y đích
+     * @param ticksPerStep Số lượt trò chơi giữa hai bước đi của thực thể (xem Entity.getTicksPerStep);
+     *                     đứng chờ cũng tính theo bước
+     * @return Danh sách vị trí sau mỗi bước (đứng chờ được lặp lại vị trí cũ), rỗng nếu không có đường đi
+     */
+    public List<int[]> findPath(Game game, int startX, int startY, int goalX, int goalY, int ticksPerStep) {
+        if (!inBounds(goalX, goalY) || !search(game, startX, startY, goalX * height + goalY, ticksPerStep)) {
+            return Collections.emptyList();
+        }
+        return constructPath();
+    }
+
+    /**
+     * Tìm bước đi đầu tiên tới (goalX, goalY), không tạo danh sách đường đi (tham số như findPath).
+     *
+     * @return Chỉ số ô (x * height + y) của bước tiếp theo (bằng ô bắt đầu nếu cần đứng chờ),
+     *         hoặc -1 nếu không có đường đi (hoặc đang đứng ở đích).
+     */
+    public int findNextStep(Game game, int startX, int startY, int goalX, int goalY, int ticksPerStep) {
+        if (!inBounds(goalX, goalY) || !search(game, startX, startY, goalX * height + goalY, ticksPerStep)) {
+            return -1;
+        }
+        return firstStep();
+    }
+
+    /**
+     * Tìm bước đi đầu tiên tới ô sớm nhất mà từ đó có thể đứng yên mãi mãi (không còn lần nổ nào về sau).
+     * Khác EscapeSolver, đường đi được phép đứng chờ và đi xuyên qua ô đã nổ xong.
+     *
+     * @return Chỉ số ô của bước tiếp theo (bằng ô bắt đầu nếu cần đứng chờ),
+     *         hoặc -1 nếu không thoát được (hoặc đã an toàn).
+     */
+    public int findEscapeStep(Game game, int startX, int startY, int ticksPerStep) {
+        if (!search(game, startX, startY, NO_PARENT, ticksPerStep)) {
+            return -1;
+        }
+        return firstStep();
+    }
+
+    public int cellX(int cell) {
+        return cell / height;
+    }
+
+    public int cellY(int cell) {
+        return cell % height;
+    }
+
+    /**
+     * Lấy lượt (tính từ hiện tại) tới đích của lần tìm gần nhất, -1 nếu không tìm được.
+     */
+    public int getArrivalTick() {
+        return goalState == NO_PARENT ? -1 : arrival[goalState];
+    }
+
+    /**
+     * Lấy số trạng thái (ô, khoảng) đã mở rộng trong lần tìm gần nhất.
+     */
+    public int getExpandedStates() {
+        return expandedStates;
+    }
+
+    /**
+     * A* trên các trạng thái (ô, khoảng an toàn), chi phí là lượt tới nơi.
+     *
+     * @param goal         Ô đích, hoặc NO_PARENT để tìm ô không còn bị nổ về sau.
+     * @param ticksPerStep Số lượt cho một bước (hoặc một lần đứng chờ) của thực thể.
+     * @return true nếu tìm được đường đi (trạng thái đích lưu trong goalState).
+     */
+    private boolean search(Game game, int startX, int startY, int goal, int ticksPerStep) {
+        startState = goalState = NO_PARENT;
+        this.ticksPerStep = Math.max(1, ticksPerStep);
+        expandedStates = 0;
+        if (!inBounds(startX, startY)) {
+            return false;
+        }
+        GameMap map = game.getGameMap();
+        BlastMap blastMap = game.getBlastMap();
+        DistanceTable distanceTable = game.getDistanceTable();
+        if (goal != NO_PARENT
+                && distanceTable.distance(startX, startY, goal / height, goal % height) == DistanceTable.UNREACHABLE) {
+            return false;
+        }
+        nextGeneration();
+        openSet.clear();
+
+        int start = startX * height + startY;
+        buildIntervals(blastMap, startX, startY);
+        // Vị trí hiện tại phải nằm trong khoảng an toàn bắt đầu từ lượt 0
+        if (intervalCount[start] == 0 || intervalBegin[start * MAX_INTERVALS] != 0) {
+            return false;
+        }
+        startState = start * MAX_INTERVALS;
+        visit(startState, 0, NO_PARENT);
+        openSet.push(startState, heuristic(distanceTable, startX, startY, goal));
+
+        while (!openSet.isEmpty()) {
+            int state = openSet.poll();
+            int cell = state / MAX_INTERVALS;
+            int cx = cell / height;
+            int cy = cell - cx * height;
+            if (goal == NO_PARENT ? intervalEnd[state] == INFINITE : cell == goal) {
+                goalState = state;
+                return true;
+            }
+            closed[state] = true;
+            expandedStates++;
+            int time = arrival[state];
+            int end = intervalEnd[state];
+
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (!map.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int neighbor = nx * height + ny;
+                buildIntervals(blastMap, nx, ny);
+                int base = neighbor * MAX_INTERVALS;
+                for (int i = 0; i < intervalCount[neighbor]; i++) {
+                    int next = base + i;
+                    // Lượt tới sớm nhất rơi vào khoảng i (số lượt chờ là bội của ticksPerStep)
+                    int earliest = time + ticksPerStep;
+                    if (earliest < intervalBegin[next]) {
+                        int waits = (intervalBegin[next] - time + ticksPerStep - 1) / ticksPerStep;
+                        earliest = time + waits * ticksPerStep;
+                    }
+                    // Phải ở lại ô hiện tại cho tới ngay trước lúc tới ô kế tiếp
+                    if (earliest - 1 > end) {
+                        break; // Các khoảng sau còn muộn hơn
+                    }
+                    if (earliest > intervalEnd[next]) {
+                        continue;
+                    }
+                    if (stateStamp[next] == generation && (closed[next] || arrival[next] <= earliest)) {
+                        continue; // Đã có cách tới khoảng này sớm hơn
+                    }
+                    visit(next, earliest, state);
+                    openSet.push(next, earliest + heuristic(distanceTable, nx, ny, goal));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chia thời gian của ô (x, y) thành các khoảng an toàn giữa các lần nổ.
+     */
+    private void buildIntervals(BlastMap blastMap, int x, int y) {
+        int cell = x * height + y;
+        if (intervalStamp[cell] == generation) {
+            return;
+        }
+        intervalStamp[cell] = generation;
+        int base = cell * MAX_INTERVALS;
+        int blasts = blastMap.blastTickCount(x, y);
+        int count = 0;
+        int begin = 0;
+        for (int i = 0; i < blasts; i++) {
+            int tick = blastMap.blastTickAt(x, y, i);
+            if (count == MAX_INTERVALS - 1) {
+                // Hết chỗ: gộp các lần nổ còn lại, khoảng cuối bắt đầu sau lần nổ cuối cùng
+                tick = blastMap.blastTickAt(x, y, blasts - 1);
+                begin = tick + 1;
+                break;
+            }
+            if (tick > begin) {
+                intervalBegin[base + count] = begin;
+                intervalEnd[base + count] = tick - 1;
+                count++;
+            }
+            begin = Math.max(begin, tick + 1);
+        }
+        intervalBegin[base + count] = begin;
+        intervalEnd[base + count] = INFINITE;
+        intervalCount[cell] = count + 1;
+    }
+
+    private int heuristic(DistanceTable distanceTable, int x, int y, int goal) {
+        if (goal == NO_PARENT) {
+            return 0;
+        }
+        int gx = goal / height;
+        int gy = goal - gx * height;
+        // Đứng chờ chỉ làm tăng số lượt nên độ dài đường đi thật vẫn là cận dưới
+        return distanceTable.distanceOrManhattan(x, y, gx, gy) * ticksPerStep;
+    }
+
+    /**
+     * Lấy ô của bước đi đầu tiên trên đường tới goalState.
+     */
+    private int firstStep() {
+        if (goalState == startState) {
+            return -1;
+        }
+        int state = goalState;
+        while (parent[state] != startState) {
+            state = parent[state];
+        }
+        // Nếu bước đầu tiên phải chờ, đứng yên ở ô bắt đầu trong lượt này
+        if (arrival[state] > ticksPerStep) {
+            return startState / MAX_INTERVALS;
+        }
+        return state / MAX_INTERVALS;
+    }
+
+    // Hàm xây dựng đường đi từ trạng thái đích (không gồm ô bắt đầu), mỗi bước chờ là một phần tử
+    private List<int[]> constructPath() {
+        List<int[]> path = new ArrayList<>();
+        int state = goalState;
+        while (parent[state] != NO_PARENT) {
+            int from = parent[state];
+            int cell = state / MAX_INTERVALS;
+            path.add(new int[]{cell / height, cell % height});
+            int fromCell = from / MAX_INTERVALS;
+            int waits = (arrival[state] - arrival[from]) / ticksPerStep - 1;
+            for (int i = 0; i < waits; i++) {
+                path.add(new int[]{fromCell / height, fromCell % height});
+            }
+            state = from;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private void visit(int state, int time, int parentState) {
+        if (stateStamp[state] != generation) {
+            stateStamp[state] = generation;
+            closed[state] = false;
+        }
+        arrival[state] = time;
+        parent[state] = parentState;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stateStamp, 0);
+            Arrays.fill(intervalStamp, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ai;
+
+/**
+ * Hàm đánh giá trạng thái tìm kiếm, dùng chung cho các chiến lược tìm kiếm (Minimax, MCTS).
+ * Giá trị càng cao càng có lợi cho AIPlayer.
+ */
+public class StateEvaluator {
+
+    /**
+     * Hàm đánh giá trạng thái trò chơi.
+     *
+     * @param state Trạng thái tìm kiếm cần đánh giá.
+     * @return Giá trị heuristic của trạng thái.
+     */
+    public double heuristic(SearchState state) {
+        double score = 0.0;
+
+        // Khoảng cách đường đi giữa AI và Player (tra bảng, không đi xuyên tường)
+        int distance = state.getPlayerDistance();
+        score -= distance * 10; // Người chơi càng gần AI, điểm càng thấp
+
+        // An toàn của vị trí hiện tại
+        if (!isSafe(state)) {
+            score -= 50; // Phạt nếu AI không an toàn
+        }
+
+        // Số bom còn lại và phạm vi nổ
+        score += state.getBombCount() * 20; // AI có bom hơn
+
+        // Nguy hiểm từ bom tới Player: chỉ duyệt các quả bom khi ô của Player nằm trong vùng nổ (tra BitBoard,
+        // tính cả tường chắn), mức phạt tăng khi Player càng gần bom.
+        // Bỏ qua bom của Player để Player không được lợi khi tự đặt bom cạnh mình
+        if (state.isInAiBlast(state.getPlayerX(), state.getPlayerY())) {
+            for (int i = 0; i < state.getBombSize(); i++) {
+                if (state.isPlayerBomb(i)) {
+                    continue;
+                }
+                if (!state.bombCovers(i, state.getPlayerX(), state.getPlayerY())) {
+                    continue; // Tia nổ bị tường chặn hoặc ô không cùng hàng, cột với bom
+                }
+                int bombDistance = Math.abs(state.getBombX(i) - state.getPlayerX()) +
+                        Math.abs(state.getBombY(i) - state.getPlayerY());
+                score -= (state.getBombRange(i) - bombDistance + 1) * 50;
+            }
+        }
+
+        // Thêm điểm thưởng khi đặt bom gần người chơi hoặc Balloon
+        if (distance <= 3 && state.getBombCount() > 0) {
+            score += 100;
+        }
+
+        // Phạt khi AI bị dồn vào ngõ cụt
+        if (isCornered(state)) {
+            score -= 150; // Giảm điểm thay vì tăng
+        }
+
+        // Thêm điểm thưởng cho các vị trí có nhiều hướng đi hơn
+        int availableDirections = countAvailableDirections(state.getAiPlayerX(), state.getAiPlayerY(), state);
+        score += availableDirections * 10; // Ưu tiên các vị trí có nhiều hướng đi hơn
+
+        // **Thêm điểm thưởng cho hành động Đặt Bom**
+        if (state.hasJustPlacedBomb()) {
+            score += 150; // Tăng điểm khi AI đã đặt bom
+        }
+
+        return score;
+    }
+
+    /**
+     * Kiểm tra xem vị trí của AIPlayer có an toàn không.
+     *
+     * @param state Trạng thái tìm kiếm.
+     * @return true nếu an toàn, ngược lại false.
+     */
+    private boolean isSafe(SearchState state) {
+        // AIPlayer không an toàn nếu đứng trong vùng nổ của một quả bom (tra trên BitBoard vùng nổ)
+        return !state.isInBlast(state.getAiPlayerX(), state.getAiPlayerY());
+    }
+
+    /**
+     * Kiểm tra xem AIPlayer có bị dồn vào ngõ cụt không.
+     *
+     * @param state Trạng thái tìm kiếm.
+     * @return true nếu bị dồn vào ngõ cụt, ngược lại false.
+     */
+    private boolean isCornered(SearchState state) {
+        int walkable = countAvailableDirections(state.getAiPlayerX(), state.getAiPlayerY(), state);
+        return walkable <= 1; // Nếu có ít hơn hoặc bằng 1 hướng đi, coi như bị dồn vào ngõ cụt
+    }
+
+    /**
+     * Đếm số hướng đi khả thi từ vị trí (x, y).
+     *
+     * @param x     Tọa độ X của AIPlayer.
+     * @param y     Tọa độ Y của AIPlayer.
+     * @param state Trạng thái tìm kiếm.
+     * @return Số hướng đi khả thi.
+     */
+    private int countAvailableDirections(int x, int y, SearchState state) {
+        return state.countWalkableNeighbours(x, y);
+    }
+}
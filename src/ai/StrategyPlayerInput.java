@@ -0,0 +1,43 @@
+package ai;
+
+/**
+ * Bot điều khiển người chơi bằng một MovementStrategy có sẵn (RandomMovementStrategy, EscapeBombsStrategy...).
+ *
+ * Các chiến lược di chuyển thực thể trực tiếp bằng setX/setY, nên bot cho chiến lược chạy trên người chơi,
+ * đọc bước đi vừa chọn rồi trả người chơi về chỗ cũ. Bước đi được thực hiện lại qua Game.playerMove()
+ * như phím bấm, nên vẫn được kiểm tra hợp lệ và nhặt vật phẩm như bình thường.
+ */
+public class StrategyPlayerInput implements PlayerInput {
+    private final MovementStrategy strategy;
+
+    /**
+     * Constructor tạo bot từ một chiến lược di chuyển.
+     *
+     * @param strategy Chiến lược điều khiển người chơi.
+     */
+    public StrategyPlayerInput(MovementStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public Action nextAction(Game game) {
+        Player player = game.getPlayer();
+        int x = player.getX();
+        int y = player.getY();
+        strategy.move(player, game);
+        int dx = player.getX() - x;
+        int dy = player.getY() - y;
+        player.setX(x);
+        player.setY(y);
+        if (dx == 0 && dy == -1) {
+            return new Action(ActionType.MOVE_UP);
+        } else if (dx == 0 && dy == 1) {
+            return new Action(ActionType.MOVE_DOWN);
+        } else if (dx == -1 && dy == 0) {
+            return new Action(ActionType.MOVE_LEFT);
+        } else if (dx == 1 && dy == 0) {
+            return new Action(ActionType.MOVE_RIGHT);
+        }
+        return new Action(ActionType.STAY);
+    }
+}
@@ -0,0 +1,146 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo độ trễ từng giai đoạn của một lượt chơi và của từng loại chiến lược di chuyển bằng LatencyHistogram.
+ *
+ * Giai đoạn: updateBombs, updateEntities, isOver (trong updateGame), lượt người chơi (playerMove, không tính lượt AI
+ * được gọi lồng bên trong) và lượt AI (aiMove). Chiến lược được nhóm theo tên lớp (MinimaxStrategy, ChasePlayerStrategy...).
+ * Phân vị p50/p99/max được lấy bất cứ lúc nào bằng report(), hoặc được ghi định kỳ ra tệp bằng startSnapshots().
+ *
+ * Có thể dùng chung một đối tượng cho nhiều trò chơi chạy song song (Game.setProfiler()), vì các biểu đồ ghi nguyên tử.
+ */
+public class TickProfiler {
+    public enum Phase {
+        UPDATE_BOMBS, UPDATE_ENTITIES, IS_OVER, PLAYER_MOVE, AI_MOVE
+    }
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+    private final Map<String, LatencyHistogram> strategies = new ConcurrentHashMap<>();
+    private ScheduledExecutorService snapshotExecutor;
+
+    public TickProfiler() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Ghi thời gian của một lần gọi MovementStrategy.move() (TimedStrategy được tính theo chiến lược bên trong).
+     */
+    public void recordStrategy(MovementStrategy strategy, long nanos) {
+        if (strategy instanceof TimedStrategy) {
+            strategy = ((TimedStrategy) strategy).getDelegate();
+        }
+        strategies.computeIfAbsent(strategy.getClass().getSimpleName(), name -> new LatencyHistogram()).record(nanos);
+    }
+
+    public LatencyHistogram getPhase(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * Lấy biểu đồ của một loại chiến lược theo tên lớp, hoặc null nếu chưa có lần gọi nào.
+     */
+    public LatencyHistogram getStrategy(String className) {
+        return strategies.get(className);
+    }
+
+    /**
+     * Xóa mọi giá trị đã ghi.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : phases) {
+            histogram.reset();
+        }
+        strategies.clear();
+    }
+
+    /**
+     * Tạo báo cáo p50/p99/p99.9/max của mọi giai đoạn và chiến lược.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format("%-28s %s%n", phase, getPhase(phase)));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(strategies).entrySet()) {
+            sb.append(String.format("%-28s %s%n", entry.getKey(), entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ghi báo cáo hiện tại ra tệp (ghi vào tệp tạm rồi đổi tên để người đọc không thấy tệp ghi dở).
+     *
+     * @param file Tệp ảnh chụp.
+     * @throws IOException Nếu không ghi được tệp.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        Files.write(temp, ("# " + LocalDateTime.now() + System.lineSeparator() + report())
+                .getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Bắt đầu ghi ảnh chụp định kỳ trên một luồng daemon.
+     *
+     * @param file         Tệp ảnh chụp.
+     * @param periodMillis Chu kỳ ghi (ms).
+     */
+    public synchronized void startSnapshots(Path file, long periodMillis) {
+        stopSnapshots();
+        snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-profiler-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotExecutor.scheduleAtFixedRate(() -> {
+            try {
+                writeSnapshot(file);
+            } catch (IOException e) {
+                Log.warn("Không ghi được ảnh chụp độ trễ {}: {}", file, e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dừng ghi ảnh chụp định kỳ.
+     */
+    public synchronized void stopSnapshots() {
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+            snapshotExecutor = null;
+        }
+    }
+
+    /**
+     * Bật ghi ảnh chụp định kỳ nếu có thuộc tính hệ thống "ai.profile.snapshot" (đường dẫn tệp),
+     * chu kỳ lấy từ "ai.profile.period" (ms, mặc định 10000).
+     */
+    public void startSnapshotsFromProperties() {
+        String file = System.getProperty("ai.profile.snapshot");
+        if (file != null) {
+            startSnapshots(Paths.get(file), Long.getLong("ai.profile.period", 10_000L));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ai;
+/**
+ * Sự kiện khi một ô trên bản đồ thay đổi (ví dụ: tường phá hủy bị nổ thành ô trống).
+ */
+public class TileChangedEvent extends Event {
+    private int x;
+    private int y;
+    private char oldTile;
+    private char newTile;
+    public TileChangedEvent(int x, int y, char oldTile, char newTile) {
+        this.x = x;
+        this.y = y;
+        this.oldTile = oldTile;
+        this.newTile = newTile;
+    }
+    public int getX() {
+        return x;
+    }
+    public int getY() {
+        return y;
+    }
+    public char getOldTile() {
+        return oldTile;
+    }
+    public char getNewTile() {
+        return newTile;
+    }
+}
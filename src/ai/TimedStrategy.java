@@ -0,0 +1,59 @@
+package ai;
+
+/**
+ * Bọc một MovementStrategy để đo thời gian mỗi lượt và cộng dồn số Node tìm kiếm
+ * (số Node của MinimaxStrategy hoặc số vòng lặp của MctsStrategy).
+ *
+ * Mỗi ván dùng một đối tượng riêng nên các bộ đếm không cần đồng bộ.
+ */
+public class TimedStrategy implements MovementStrategy {
+    private final MovementStrategy delegate;
+    private long turnCount;
+    private long totalNanos;
+    private long maxNanos;
+    private long nodeCount;
+
+    /**
+     * Constructor bọc một chiến lược.
+     *
+     * @param delegate Chiến lược thực sự chọn nước đi.
+     */
+    public TimedStrategy(MovementStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void move(Entity entity, Game game) {
+        long start = System.nanoTime();
+        delegate.move(entity, game);
+        long elapsed = System.nanoTime() - start;
+        turnCount++;
+        totalNanos += elapsed;
+        maxNanos = Math.max(maxNanos, elapsed);
+        if (delegate instanceof MinimaxStrategy) {
+            nodeCount += ((MinimaxStrategy) delegate).getLastNodeCount();
+        } else if (delegate instanceof MctsStrategy) {
+            nodeCount += ((MctsStrategy) delegate).getLastIterationCount();
+        }
+    }
+
+    public MovementStrategy getDelegate() {
+        return delegate;
+    }
+
+    public long getTurnCount() {
+        return turnCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getNodeCount() {
+        return nodeCount;
+    }
+}
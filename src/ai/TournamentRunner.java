@@ -0,0 +1,234 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Chạy nhiều ván độc lập song song trên một ForkJoinPool (work-stealing) bằng HeadlessEngine
+ * để so sánh các chiến lược của AIPlayer với cùng một bot người chơi.
+ *
+ * Mỗi ván tạo Game và chiến lược riêng nên các ván không dùng chung trạng thái. Ván thứ i của mọi chiến lược dùng
+ * cùng seed + i nên các chiến lược được so sánh trên cùng các bản đồ. Kết quả được cộng dồn theo
+ * chiến lược: tỉ lệ thắng, thời gian trung bình và lớn nhất mỗi lượt AI, số Node tìm kiếm.
+ */
+public class TournamentRunner {
+    private final List<String> strategyNames;
+    private final String playerInputName;
+    private final int gamesPerStrategy;
+    private final long maxRounds;
+    private final int parallelism;
+    private final long seed;
+    private final TickProfiler profiler = new TickProfiler(); // Dùng chung cho mọi ván
+
+    /**
+     * Kết quả cộng dồn của một chiến lược.
+     */
+    public static class StrategyResult {
+        private final String name;
+        private int games;
+        private int aiWins;
+        private int playerWins;
+        private int unfinished;
+        private long rounds;
+        private long turns;
+        private long totalNanos;
+        private long maxNanos;
+        private long nodes;
+        private final SearchStats searchStats = new SearchStats(); // Chỉ có với MinimaxStrategy
+
+        StrategyResult(String name) {
+            this.name = name;
+        }
+
+        void add(Game game, HeadlessEngine engine, TimedStrategy timer) {
+            games++;
+            if (!game.isGameOver()) {
+                unfinished++;
+            } else if (game.isGameWon()) {
+                playerWins++;
+            } else {
+                aiWins++;
+            }
+            rounds += engine.getRounds();
+            turns += timer.getTurnCount();
+            totalNanos += timer.getTotalNanos();
+            maxNanos = Math.max(maxNanos, timer.getMaxNanos());
+            nodes += timer.getNodeCount();
+            if (timer.getDelegate() instanceof MinimaxStrategy) {
+                searchStats.add(((MinimaxStrategy) timer.getDelegate()).getGameSearchStats());
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getAiWins() {
+            return aiWins;
+        }
+
+        public int getPlayerWins() {
+            return playerWins;
+        }
+
+        public int getUnfinished() {
+            return unfinished;
+        }
+
+        public double getAiWinRate() {
+            return games == 0 ? 0.0 : (double) aiWins / games;
+        }
+
+        public double getAverageRounds() {
+            return games == 0 ? 0.0 : (double) rounds / games;
+        }
+
+        public double getAverageTurnMillis() {
+            return turns == 0 ? 0.0 : totalNanos / 1e6 / turns;
+        }
+
+        public double getMaxTurnMillis() {
+            return maxNanos / 1e6;
+        }
+
+        public SearchStats getSearchStats() {
+            return searchStats;
+        }
+
+        public double getAverageNodesPerTurn() {
+            return turns == 0 ? 0.0 : (double) nodes / turns;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %5d ván | AI thắng %5.1f%% | người chơi thắng %4d | chưa xong %4d | "
+                            + "%6.1f vòng/ván | lượt AI %8.3f ms (max %8.3f) | %10.1f Node/lượt",
+                    name, games, getAiWinRate() * 100, playerWins, unfinished, getAverageRounds(),
+                    getAverageTurnMillis(), getMaxTurnMillis(), getAverageNodesPerTurn());
+        }
+    }
+
+    /**
+     * Constructor tạo giải đấu.
+     *
+     * @param strategyNames    Tên các chiến lược của AIPlayer (xem HeadlessEngine.createStrategy).
+     * @param playerInputName  Tên bot người chơi (xem HeadlessEngine.createPlayerInput).
+     * @param gamesPerStrategy Số ván cho mỗi chiến lược.
+     * @param maxRounds        Số vòng tối đa mỗi ván.
+     * @param parallelism      Số luồng của ForkJoinPool.
+     * @param seed             Seed của ván đầu tiên.
+     */
+    public TournamentRunner(List<String> strategyNames, String playerInputName, int gamesPerStrategy,
+                            long maxRounds, int parallelism, long seed) {
+        this.strategyNames = strategyNames;
+        this.playerInputName = playerInputName;
+        this.gamesPerStrategy = gamesPerStrategy;
+        this.maxRounds = maxRounds;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    /**
+     * Lấy bộ đo độ trễ dùng chung của mọi ván.
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Chạy toàn bộ các ván và trả về kết quả theo thứ tự của strategyNames.
+     */
+    public List<StrategyResult> run() {
+        List<StrategyResult> results = new ArrayList<>();
+        List<Callable<Void>> matches = new ArrayList<>();
+        for (String name : strategyNames) {
+            StrategyResult result = new StrategyResult(name);
+            results.add(result);
+            for (int i = 0; i < gamesPerStrategy; i++) {
+                long matchSeed = seed + i;
+                matches.add(() -> {
+                    playMatch(result, matchSeed);
+                    return null;
+                });
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> match : pool.invokeAll(matches)) {
+                match.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Lỗi khi chạy ván đấu", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    private void playMatch(StrategyResult result, long matchSeed) {
+        Game game = new Game(matchSeed);
+        game.setProfiler(profiler);
+        TimedStrategy timer = new TimedStrategy(HeadlessEngine.createStrategy(result.getName(), matchSeed));
+        game.getAiPlayer().setMovementStrategy(timer);
+        HeadlessEngine engine = new HeadlessEngine(game, HeadlessEngine.createPlayerInput(playerInputName, matchSeed));
+        engine.run(maxRounds);
+        synchronized (result) {
+            result.add(game, engine, timer);
+        }
+    }
+
+    /**
+     * Tham số: [số ván mỗi chiến lược] [số luồng] [người chơi] [chiến lược AI...]
+     * Seed được đọc từ thuộc tính hệ thống "seed" (-Dseed=...), mặc định ngẫu nhiên.
+     */
+    public static void main(String[] args) {
+        // Chỉ in cảnh báo trước khi lớp Log được nạp, trừ khi đã chỉ định mức log
+        if (System.getProperty("ai.log.level") == null) {
+            System.setProperty("ai.log.level", "WARN");
+        }
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String playerInput = args.length > 2 ? args[2] : "random";
+        List<String> strategies = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            strategies.add(args[i]);
+        }
+        if (strategies.isEmpty()) {
+            strategies.add("minimax:3");
+            strategies.add("mcts:300");
+            strategies.add("random");
+        }
+
+        long seed = Long.getLong("seed", new SplittableRandom().nextLong());
+
+        long start = System.nanoTime();
+        TournamentRunner runner = new TournamentRunner(strategies, playerInput, games, 1000, parallelism, seed);
+        runner.getProfiler().startSnapshotsFromProperties();
+        List<StrategyResult> results = runner.run();
+        runner.getProfiler().stopSnapshots();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Người chơi: %s, %d ván mỗi chiến lược, %d luồng, seed %d, %.1f giây%n",
+                playerInput, games, parallelism, seed, seconds);
+        for (StrategyResult result : results) {
+            System.out.println(result);
+        }
+        for (StrategyResult result : results) {
+            if (result.getSearchStats().getSearches() > 0) {
+                System.out.print(result.getName() + ": " + result.getSearchStats());
+            }
+        }
+        System.out.print(runner.getProfiler().report());
+    }
+}
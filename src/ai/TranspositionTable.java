@@ -0,0 +1,118 @@
+package ai;
+
+/**
+ * Bảng chuyển vị (transposition table) kích thước cố định cho thuật toán Minimax.
+ * Mỗi mục lưu giá trị, độ sâu, loại cận và nước đi tốt nhất của một trạng thái, được đánh chỉ số
+ * bằng khóa Zobrist. Dữ liệu được nén vào một số long nên việc tra cứu không cấp phát bộ nhớ.
+ */
+public class TranspositionTable {
+    // Loại cận của giá trị được lưu
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1; // Giá trị thật >= giá trị lưu (beta cut-off)
+    public static final int UPPER_BOUND = 2; // Giá trị thật <= giá trị lưu (không vượt alpha)
+
+    // Giá trị trả về khi không tìm thấy mục nào
+    public static final long MISS = 0L;
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int GENERATION_SHIFT = 46;
+    private static final long PRESENT = 1L << 62;
+    private static final ActionType[] ACTIONS = ActionType.values();
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    /**
+     * Constructor tạo bảng với số mục là lũy thừa của 2.
+     *
+     * @param sizeBits Số bit của chỉ số (bảng có 2^sizeBits mục).
+     */
+    public TranspositionTable(int sizeBits) {
+        int size = 1 << sizeBits;
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Bắt đầu một lượt tìm kiếm mới. Các mục của lượt trước được coi như đã cũ và ưu tiên ghi đè.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Tra cứu mục ứng với khóa.
+     *
+     * @param key Khóa Zobrist của trạng thái.
+     * @return Mục đã nén, hoặc MISS nếu không có.
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        // Khóa được lưu dưới dạng key ^ data để phát hiện mục bị ghi dở khi nhiều luồng cùng truy cập
+        if (entry != MISS && (keys[index] ^ entry) == key) {
+            return entry;
+        }
+        return MISS;
+    }
+
+    /**
+     * Lưu kết quả tìm kiếm của một trạng thái.
+     *
+     * @param key      Khóa Zobrist của trạng thái.
+     * @param depth    Độ sâu còn lại khi tìm kiếm trạng thái.
+     * @param value    Giá trị tìm được.
+     * @param bound    Loại cận (EXACT, LOWER_BOUND, UPPER_BOUND).
+     * @param bestMove Nước đi tốt nhất, hoặc null nếu không có.
+     */
+    public void store(long key, int depth, int value, int bound, ActionType bestMove) {
+        int index = (int) key & mask;
+        long old = data[index];
+        // Giữ lại mục sâu hơn của cùng lượt tìm kiếm, trừ khi đó chính là trạng thái này
+        if (old != MISS && (keys[index] ^ old) != key
+                && generationOf(old) == generation && depthOf(old) > depth) {
+            return;
+        }
+        long move = bestMove == null ? 0 : bestMove.ordinal() + 1;
+        long entry = (value & 0xFFFFFFFFL)
+                | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | (move << MOVE_SHIFT)
+                | ((long) generation << GENERATION_SHIFT)
+                | PRESENT;
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    public static int valueOf(long entry) {
+        return (int) entry;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /**
+     * Lấy nước đi tốt nhất đã lưu trong mục.
+     *
+     * @param entry Mục đã nén.
+     * @return Nước đi tốt nhất, hoặc null nếu không có.
+     */
+    public static ActionType bestMoveOf(long entry) {
+        int move = (int) (entry >>> MOVE_SHIFT) & 0xF;
+        return move == 0 ? null : ACTIONS[move - 1];
+    }
+
+    private static int generationOf(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+    }
+}
@@ -0,0 +1,24 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sự kiện JFR cho một lượt của người chơi (Game.playerMove) hoặc của AI (Game.aiMove).
+ */
+@Name("ai.Turn")
+@Label("Turn")
+@Category({"Bomberman", "Game"})
+@Description("Một lượt của người chơi hoặc AIPlayer")
+class TurnJfrEvent extends jdk.jfr.Event {
+    @Label("Side")
+    String side;
+
+    @Label("Action")
+    String action;
+
+    @Label("Tick")
+    long tick;
+}
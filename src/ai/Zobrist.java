@@ -0,0 +1,109 @@
+package ai;
+
+import java.util.Random;
+
+/**
+ * Bảng khóa Zobrist dùng để băm trạng thái tìm kiếm thành một số 64-bit.
+ * Mỗi đặc trưng (vị trí AIPlayer, vị trí Player, bom tại một ô, ...) có một khóa ngẫu nhiên riêng,
+ * khóa của trạng thái là XOR của các khóa đặc trưng nên có thể cập nhật tăng dần sau mỗi nước đi.
+ */
+public class Zobrist {
+    // Seed cố định để cùng một kích thước bản đồ luôn cho cùng bộ khóa
+    private static final long SEED = 0x5DEECE66DL;
+    private static final int BOMB_COUNT_KEYS = 64;
+
+    // Bộ khóa dùng gần nhất, tránh tạo lại bảng cho mỗi lượt AI
+    private static volatile Zobrist cached;
+
+    private final int width;
+    private final int height;
+    private final long[] aiPosition;
+    private final long[] playerPosition;
+    private final long[] bombAt;
+    private final long[] destructibleWallAt;
+    private final long[] bombCount;
+    private final long[] playerBombAt;
+    private final long[] playerBombCount;
+    private final long aiTurn;
+    private final long justPlacedBomb;
+
+    private Zobrist(int width, int height) {
+        this.width = width;
+        this.height = height;
+        Random rand = new Random(SEED);
+        int cells = width * height;
+        aiPosition = randomKeys(rand, cells);
+        playerPosition = randomKeys(rand, cells);
+        bombAt = randomKeys(rand, cells);
+        destructibleWallAt = randomKeys(rand, cells);
+        bombCount = randomKeys(rand, BOMB_COUNT_KEYS);
+        aiTurn = rand.nextLong();
+        justPlacedBomb = rand.nextLong();
+        playerBombAt = randomKeys(rand, cells);
+        playerBombCount = randomKeys(rand, BOMB_COUNT_KEYS);
+    }
+
+    /**
+     * Lấy bộ khóa cho bản đồ có kích thước (width, height).
+     *
+     * @param width  Chiều rộng bản đồ.
+     * @param height Chiều cao bản đồ.
+     * @return Bộ khóa Zobrist tương ứng.
+     */
+    public static Zobrist forSize(int width, int height) {
+        Zobrist z = cached;
+        if (z == null || z.width != width || z.height != height) {
+            z = new Zobrist(width, height);
+            cached = z;
+        }
+        return z;
+    }
+
+    private static long[] randomKeys(Random rand, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = rand.nextLong();
+        }
+        return keys;
+    }
+
+    private int cell(int x, int y) {
+        return x * height + y;
+    }
+
+    public long aiPosition(int x, int y) {
+        return aiPosition[cell(x, y)];
+    }
+
+    public long playerPosition(int x, int y) {
+        return playerPosition[cell(x, y)];
+    }
+
+    public long bombAt(int x, int y) {
+        return bombAt[cell(x, y)];
+    }
+
+    public long destructibleWallAt(int x, int y) {
+        return destructibleWallAt[cell(x, y)];
+    }
+
+    public long bombCount(int count) {
+        return bombCount[count & (BOMB_COUNT_KEYS - 1)];
+    }
+
+    public long playerBombAt(int x, int y) {
+        return playerBombAt[cell(x, y)];
+    }
+
+    public long playerBombCount(int count) {
+        return playerBombCount[count & (BOMB_COUNT_KEYS - 1)];
+    }
+
+    public long aiTurn() {
+        return aiTurn;
+    }
+
+    public long justPlacedBomb() {
+        return justPlacedBomb;
+    }
+}